@@ -0,0 +1,69 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.service.AvailabilityCache;
+import com.example.booking.service.AvailabilityService;
+import com.example.booking.service.BookingService;
+import com.example.booking.service.CleanerRoster;
+import com.example.booking.service.ScheduleIndex;
+import com.example.booking.service.SmallestVehicleStrategy;
+import com.example.booking.service.VehicleTeams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+	
+	@Param({"10", "100", "1000", "10000"})
+	private int cleanerCount;
+	@Param({"1", "3", "5"})
+	private int cleanersPerVehicle;
+	@Param({"2"})
+	private int bookingsPerCleaner;
+	@Param({"1", "3"})
+	private int teamSize;
+	
+	private AvailabilityService availabilityService;
+	private BookingService bookingService;
+	private List<CleanerSnapshot> roster;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Cleaner> cleaners = BenchmarkFixtures.cleaners(cleanerCount, cleanersPerVehicle);
+		List<Booking> bookings = BenchmarkFixtures.bookings(cleaners, bookingsPerCleaner);
+		CleanerRoster cleanerRoster = new CleanerRoster(BenchmarkFixtures.cleanerRepository(cleaners), Duration.ofHours(1));
+		availabilityService = new AvailabilityService(cleanerRoster,
+				new ScheduleIndex(BenchmarkFixtures.bookingRepository(bookings), null, BenchmarkFixtures.seriesCalendar()),
+				new AvailabilityCache(10_000, Duration.ZERO),
+				Runnable::run,
+				new BookingMetrics(new SimpleMeterRegistry()));
+		// only the vehicle grouping is exercised, which needs none of the collaborators
+		bookingService = new BookingService(null, null, availabilityService, new SmallestVehicleStrategy(), null, null, null, null, null, null, null, null);
+		roster = cleanerRoster.getCleaners();
+	}
+	
+	@Benchmark
+	public List<CleanerSnapshot> getCleanersByVehicleAndCount() {
+		return bookingService.getCleanersByVehicleAndCount(roster, teamSize);
+	}
+	
+	// the whole lookup createBooking makes: filter the roster for the slot, then pick a team
+	@Benchmark
+	public List<CleanerSnapshot> getAvailableTeamsBestFit() {
+		VehicleTeams teams = availabilityService.getAvailableTeams(BenchmarkFixtures.DATE, LocalTime.of(19, 0), 2);
+		return teams.bestFit(teamSize);
+	}
+}
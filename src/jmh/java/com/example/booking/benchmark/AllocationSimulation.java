@@ -0,0 +1,161 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.service.AllocationStrategy;
+import com.example.booking.service.AvailabilityService;
+import com.example.booking.service.CleanerSchedule;
+import com.example.booking.service.DaySchedule;
+import com.example.booking.service.VehicleTeams;
+import com.example.booking.util.Util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Replays one booking trace against every allocation strategy and reports bookings accepted per day,
+ * cleaner utilization and the latency of the allocation decision (free-team filter plus selection).
+ * The trace is either a CSV of {@code date,startTime,duration,cleanerCount} lines or generated from a seed:
+ * {@code mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.booking.benchmark.AllocationSimulation
+ * -Dexec.args="days=20 requests=300 cleaners=60 seed=7"} or {@code -Dexec.args="trace=bookings.csv"}.
+ */
+public class AllocationSimulation {
+
+	// vehicle sizes cycle through these, so strategies that weigh vehicles differently actually diverge
+	private static final int[] VEHICLE_SIZES = {2, 3, 4, 5};
+	private static final int SHIFT_MINUTES = CleanerSchedule.minuteOf(Util.cleanerShiftEnd) - CleanerSchedule.minuteOf(Util.cleanerShiftStart);
+
+	record Request(LocalDate date, LocalTime startTime, int duration, int cleanerCount) {
+	}
+
+	record Result(String strategy, Map<LocalDate, Integer> acceptedPerDay, long bookedCleanerMinutes, long[] latencyNanos) {
+	}
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			options.put(pair[0], pair.length > 1 ? pair[1] : "");
+		}
+		int cleanerCount = Integer.parseInt(options.getOrDefault("cleaners", "60"));
+		List<Request> trace = options.containsKey("trace")
+				? readTrace(Path.of(options.get("trace")))
+				: generateTrace(Integer.parseInt(options.getOrDefault("days", "20")),
+						Integer.parseInt(options.getOrDefault("requests", "300")),
+						Long.parseLong(options.getOrDefault("seed", "7")));
+		List<CleanerSnapshot> roster = roster(cleanerCount);
+		long days = trace.stream().map(Request::date).distinct().count();
+
+		System.out.printf("%d requests over %d days, %d cleaners in %d vehicles%n",
+				trace.size(), days, roster.size(), VehicleTeams.of(roster).vehicleCount());
+		System.out.printf("%-18s %10s %12s %12s %12s %12s %12s%n",
+				"strategy", "accepted", "per day avg", "per day min", "utilization", "p50 us", "p99 us");
+		for (AllocationStrategy strategy : AllocationStrategy.all()) {
+			// the first pass warms the JIT; only the second is reported
+			replay(strategy, roster, trace);
+			Result result = replay(strategy, roster, trace);
+			int accepted = result.acceptedPerDay().values().stream().mapToInt(Integer::intValue).sum();
+			int minPerDay = result.acceptedPerDay().values().stream().mapToInt(Integer::intValue).min().orElse(0);
+			double utilization = 100.0 * result.bookedCleanerMinutes() / ((double) roster.size() * SHIFT_MINUTES * days);
+			System.out.printf("%-18s %10d %12.1f %12d %11.1f%% %12.2f %12.2f%n",
+					result.strategy(), accepted, (double) accepted / days, minPerDay, utilization,
+					percentile(result.latencyNanos(), 0.50) / 1_000.0, percentile(result.latencyNanos(), 0.99) / 1_000.0);
+		}
+	}
+
+	static Result replay(AllocationStrategy strategy, List<CleanerSnapshot> roster, List<Request> trace) {
+		// filterAvailableTeams only reads the schedule it is handed
+		AvailabilityService availabilityService = new AvailabilityService(null, null, null, null, null);
+		Map<LocalDate, DaySchedule> days = new HashMap<>();
+		Map<LocalDate, Integer> acceptedPerDay = new TreeMap<>();
+		long bookedCleanerMinutes = 0;
+		long[] latencyNanos = new long[trace.size()];
+		for (int i = 0; i < trace.size(); i++) {
+			Request request = trace.get(i);
+			DaySchedule day = days.computeIfAbsent(request.date(), date -> DaySchedule.of(date, List.of()));
+			acceptedPerDay.putIfAbsent(request.date(), 0);
+			int startMinute = CleanerSchedule.minuteOf(request.startTime());
+			int endMinute = startMinute + request.duration() * 60;
+
+			long start = System.nanoTime();
+			VehicleTeams teams = availabilityService.filterAvailableTeams(roster, day, request.startTime(), request.duration(), null);
+			List<CleanerSnapshot> team = strategy.select(teams, day, startMinute, endMinute, request.cleanerCount());
+			latencyNanos[i] = System.nanoTime() - start;
+
+			if (!team.isEmpty()) {
+				days.put(request.date(), day.withBooking(new BusyInterval(i, startMinute, endMinute),
+						team.stream().map(CleanerSnapshot::getCleanerId).toList()));
+				acceptedPerDay.merge(request.date(), 1, Integer::sum);
+				bookedCleanerMinutes += (long) team.size() * (endMinute - startMinute);
+			}
+		}
+		return new Result(strategy.name(), acceptedPerDay, bookedCleanerMinutes, latencyNanos);
+	}
+
+	static List<CleanerSnapshot> roster(int cleanerCount) {
+		List<CleanerSnapshot> cleaners = new ArrayList<>(cleanerCount);
+		int vehicleId = 0;
+		int seatsLeft = 0;
+		for (int i = 1; i <= cleanerCount; i++) {
+			if (seatsLeft == 0) {
+				seatsLeft = VEHICLE_SIZES[vehicleId % VEHICLE_SIZES.length];
+				vehicleId++;
+			}
+			cleaners.add(new CleanerSnapshot(i, "Cleaner " + i, vehicleId, "Van " + vehicleId));
+			seatsLeft--;
+		}
+		return cleaners;
+	}
+
+	// Working days from the benchmark date on, half-hour start times, two or four hours, one to three cleaners
+	static List<Request> generateTrace(int dayCount, int requestsPerDay, long seed) {
+		Random random = new Random(seed);
+		List<Request> trace = new ArrayList<>(dayCount * requestsPerDay);
+		LocalDate date = BenchmarkFixtures.DATE;
+		for (int day = 0; day < dayCount; day++, date = date.plusDays(1)) {
+			while (!Util.isWorkingDay(date)) {
+				date = date.plusDays(1);
+			}
+			for (int i = 0; i < requestsPerDay; i++) {
+				int duration = random.nextBoolean() ? 2 : 4;
+				int latestStart = SHIFT_MINUTES - duration * 60;
+				LocalTime startTime = Util.cleanerShiftStart.plusMinutes(30L * random.nextInt(latestStart / 30 + 1));
+				trace.add(new Request(date, startTime, duration, 1 + random.nextInt(3)));
+			}
+		}
+		return trace;
+	}
+
+	static List<Request> readTrace(Path path) throws IOException {
+		List<Request> trace = new ArrayList<>();
+		for (String line : Files.readAllLines(path)) {
+			String[] fields = line.trim().split(",");
+			// skips blank lines and a header row
+			if (fields.length < 4 || !Character.isDigit(fields[0].charAt(0))) {
+				continue;
+			}
+			trace.add(new Request(LocalDate.parse(fields[0].trim()), LocalTime.parse(fields[1].trim()),
+					Integer.parseInt(fields[2].trim()), Integer.parseInt(fields[3].trim())));
+		}
+		return trace;
+	}
+
+	private static long percentile(long[] values, double quantile) {
+		if (values.length == 0) {
+			return 0;
+		}
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+	}
+}
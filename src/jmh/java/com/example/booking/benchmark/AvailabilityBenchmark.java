@@ -0,0 +1,60 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.CleanerDTO;
+import com.example.booking.service.AvailabilityCache;
+import com.example.booking.service.AvailabilityService;
+import com.example.booking.service.CleanerRoster;
+import com.example.booking.service.ScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+	
+	@Param({"10", "100", "1000", "10000"})
+	private int cleanerCount;
+	@Param({"0", "2", "4"})
+	private int bookingsPerCleaner;
+	@Param({"1", "3", "5"})
+	private int cleanersPerVehicle;
+	// off measures the schedule computation itself rather than a cache lookup
+	@Param({"false", "true"})
+	private boolean resultCache;
+	
+	private AvailabilityService availabilityService;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Cleaner> cleaners = BenchmarkFixtures.cleaners(cleanerCount, cleanersPerVehicle);
+		List<Booking> bookings = BenchmarkFixtures.bookings(cleaners, bookingsPerCleaner);
+		availabilityService = new AvailabilityService(
+				new CleanerRoster(BenchmarkFixtures.cleanerRepository(cleaners), Duration.ofHours(1)),
+				new ScheduleIndex(BenchmarkFixtures.bookingRepository(bookings), null, BenchmarkFixtures.seriesCalendar()),
+				new AvailabilityCache(10_000, resultCache ? Duration.ofHours(1) : Duration.ZERO),
+				Runnable::run,
+				new BookingMetrics(new SimpleMeterRegistry()));
+	}
+	
+	@Benchmark
+	public List<CleanerDTO> getAvailableCleanerDtos() {
+		return availabilityService.getAvailableCleanerDtos(BenchmarkFixtures.DATE, LocalTime.of(19, 0), 2);
+	}
+	
+	@Benchmark
+	public List<CleanerDTO> getAvailableCleanerDtos_wholeDay() {
+		return availabilityService.getAvailableCleanerDtos(BenchmarkFixtures.DATE, null, null);
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.entity.Vehicle;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import com.example.booking.repo.CleanerRepository;
+import com.example.booking.service.SeriesCalendar;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Generated rosters and bookings, served by in-memory stand-ins for the Spring Data repositories.
+ */
+final class BenchmarkFixtures {
+	
+	// a Saturday, so the working-day check passes
+	static final LocalDate DATE = LocalDate.of(2030, 1, 5);
+	// bookings are two hours long and packed with the mandatory break between them
+	private static final int BOOKING_HOURS = 2;
+	private static final int BOOKING_SPACING_MINUTES = BOOKING_HOURS * 60 + 30;
+	
+	private BenchmarkFixtures() {
+	}
+	
+	static List<Cleaner> cleaners(int cleanerCount, int cleanersPerVehicle) {
+		List<Cleaner> cleaners = new ArrayList<>(cleanerCount);
+		Vehicle vehicle = null;
+		for (int i = 0; i < cleanerCount; i++) {
+			if (i % cleanersPerVehicle == 0) {
+				vehicle = new Vehicle();
+				vehicle.setVehicleId(i / cleanersPerVehicle + 1);
+				vehicle.setVehicleName("Van " + vehicle.getVehicleId());
+			}
+			cleaners.add(Cleaner.builder()
+					.cleanerId(i + 1)
+					.cleanerName("Cleaner " + (i + 1))
+					.vehicle(vehicle)
+					.bookings(new ArrayList<>())
+					.build());
+		}
+		return cleaners;
+	}
+	
+	// Every vehicle team works the same bookingsPerCleaner bookings, starting at shift start
+	static List<Booking> bookings(List<Cleaner> cleaners, int bookingsPerCleaner) {
+		List<Booking> bookings = new ArrayList<>();
+		Map<Vehicle, List<Cleaner>> teams = new LinkedHashMap<>();
+		for (Cleaner cleaner : cleaners) {
+			teams.computeIfAbsent(cleaner.getVehicle(), vehicle -> new ArrayList<>()).add(cleaner);
+		}
+		int bookingId = 1;
+		for (List<Cleaner> team : teams.values()) {
+			for (int i = 0; i < bookingsPerCleaner; i++) {
+				bookings.add(Booking.builder()
+						.bookingId(bookingId++)
+						.bookingDate(DATE)
+						.bookingStartTime(LocalTime.of(8, 0).plusMinutes((long) i * BOOKING_SPACING_MINUTES))
+						.bookingDuration(BOOKING_HOURS)
+						.cleaners(team)
+						.build());
+			}
+		}
+		return bookings;
+	}
+	
+	static CleanerRepository cleanerRepository(List<Cleaner> cleaners) {
+		List<CleanerSnapshot> snapshots = cleaners.stream().map(CleanerSnapshot::of).toList();
+		return repository(CleanerRepository.class, Map.of("findAllSnapshots", args -> snapshots));
+	}
+	
+	static BookingRepository bookingRepository(List<Booking> bookings) {
+		List<CleanerBookingSlot> slots = new ArrayList<>();
+		for (Booking booking : bookings) {
+			for (Cleaner cleaner : booking.getCleaners()) {
+				slots.add(new CleanerBookingSlot(cleaner.getCleanerId(), booking.getBookingId(), booking.getBookingDate(),
+						booking.getBookingStartTime(), booking.getBookingDuration()));
+			}
+		}
+		return repository(BookingRepository.class, Map.of(
+				"findSlotsByBookingDate", args -> slots,
+				"findSlotsByBookingDateBetween", args -> slots));
+	}
+	
+	// No booking series, so days are served exactly as loaded
+	static SeriesCalendar seriesCalendar() {
+		return new SeriesCalendar(repository(BookingSeriesRepository.class, Map.of("findPendingSlots", args -> List.of())), Duration.ofHours(1));
+	}
+	
+	private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+		Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return "InMemory" + type.getSimpleName();
+				default:
+					Function<Object[], Object> handler = methods.get(method.getName());
+					if (handler == null) {
+						throw new UnsupportedOperationException(method.getName() + " is not stubbed for benchmarks");
+					}
+					return handler.apply(args);
+			}
+		});
+		return type.cast(stub);
+	}
+}
@@ -0,0 +1,171 @@
+package com.example.booking.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the repository's booking queries before and after V3__booking_indexes, as plain SQL against
+ * an in-memory H2 in MySQL mode. The schema comes from the Flyway scripts themselves; {@code migrations=baseline}
+ * stops after V2, {@code migrations=indexed} applies V3 as well. Point -Dbenchmark.jdbc.url (plus .user and
+ * .password) at a scratch MySQL database to measure the real engine, e.g.
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.args="BookingQueryBenchmark -p bookingCount=2000000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingQueryBenchmark {
+
+	private static final int CLEANER_COUNT = 200;
+	private static final int DAY_COUNT = 730;
+	private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+	// mirrors BookingRepository.findSlotsByBookingDateAndCleanerIds with a single cleaner
+	private static final String BOOKINGS_OF_CLEANER =
+			"SELECT cb.cleaner_id, b.booking_id, b.booking_date, b.booking_start_time, b.booking_duration FROM booking b " +
+			"JOIN cleaner_bookings cb ON cb.booking_id = b.booking_id WHERE b.booking_date = ? AND cb.cleaner_id IN (?)";
+	// mirrors BookingRepository.findSlotsByBookingDate
+	private static final String DAY_SLOTS =
+			"SELECT cb.cleaner_id, b.booking_id, b.booking_date, b.booking_start_time, b.booking_duration FROM booking b " +
+			"JOIN cleaner_bookings cb ON cb.booking_id = b.booking_id WHERE b.booking_date = ?";
+
+	@Param({"baseline", "indexed"})
+	private String migrations;
+
+	@Param({"1000000"})
+	private int bookingCount;
+
+	private Connection connection;
+	private PreparedStatement bookingsOfCleaner;
+	private PreparedStatement daySlots;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException, IOException {
+		String url = System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:booking_" + migrations + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		connection = DriverManager.getConnection(url, System.getProperty("benchmark.jdbc.user", "sa"),
+				System.getProperty("benchmark.jdbc.password", ""));
+		migrate("V1__baseline_schema.sql");
+		migrate("V2__occupancy_intervals.sql");
+		populate();
+		if (migrations.equals("indexed")) {
+			migrate("V3__booking_indexes.sql");
+		}
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("ANALYZE");
+		} catch (SQLException e) {
+			// MySQL spells it ANALYZE TABLE and keeps statistics current on its own
+		}
+		bookingsOfCleaner = connection.prepareStatement(BOOKINGS_OF_CLEANER);
+		daySlots = connection.prepareStatement(DAY_SLOTS);
+		random = new Random(7);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE cleaner_day_occupancy, cleaner_bookings, booking, cleaner, vehicle");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public int bookingsOfCleanerOnDate() throws SQLException {
+		bookingsOfCleaner.setDate(1, Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAY_COUNT))));
+		bookingsOfCleaner.setInt(2, 1 + random.nextInt(CLEANER_COUNT));
+		return count(bookingsOfCleaner);
+	}
+
+	@Benchmark
+	public int daySlots() throws SQLException {
+		daySlots.setDate(1, Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAY_COUNT))));
+		return count(daySlots);
+	}
+
+	private int count(PreparedStatement query) throws SQLException {
+		int rows = 0;
+		try (ResultSet resultSet = query.executeQuery()) {
+			while (resultSet.next()) {
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+	private void migrate(String script) throws SQLException, IOException {
+		String sql;
+		try (InputStream in = BookingQueryBenchmark.class.getResourceAsStream("/db/migration/" + script)) {
+			sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		try (Statement statement = connection.createStatement()) {
+			for (String line : sql.replaceAll("(?m)^--.*$", "").split(";")) {
+				if (!line.isBlank()) {
+					statement.execute(line);
+				}
+			}
+		}
+	}
+
+	// Roughly 1,400 bookings a day over two years, each with one to three of the cleaners
+	private void populate() throws SQLException {
+		connection.setAutoCommit(false);
+		try (PreparedStatement vehicle = connection.prepareStatement("INSERT INTO vehicle (vehicle_id, vehicle_name) VALUES (?, ?)");
+			 PreparedStatement cleaner = connection.prepareStatement("INSERT INTO cleaner (cleaner_id, cleaner_name, vehicle_id) VALUES (?, ?, ?)")) {
+			for (int id = 1; id <= CLEANER_COUNT; id++) {
+				if (id % 5 == 1) {
+					vehicle.setInt(1, id / 5 + 1);
+					vehicle.setString(2, "Van " + (id / 5 + 1));
+					vehicle.executeUpdate();
+				}
+				cleaner.setInt(1, id);
+				cleaner.setString(2, "Cleaner " + id);
+				cleaner.setInt(3, (id - 1) / 5 + 1);
+				cleaner.executeUpdate();
+			}
+		}
+		Random data = new Random(42);
+		try (PreparedStatement booking = connection.prepareStatement(
+				"INSERT INTO booking (booking_id, booking_date, booking_start_time, booking_duration) VALUES (?, ?, ?, ?)");
+			 PreparedStatement assignment = connection.prepareStatement("INSERT INTO cleaner_bookings (booking_id, cleaner_id) VALUES (?, ?)")) {
+			for (int id = 1; id <= bookingCount; id++) {
+				booking.setInt(1, id);
+				booking.setDate(2, Date.valueOf(FIRST_DAY.plusDays(data.nextInt(DAY_COUNT))));
+				booking.setTime(3, Time.valueOf(LocalTime.of(8, 0).plusMinutes(30L * data.nextInt(25))));
+				booking.setInt(4, data.nextBoolean() ? 2 : 4);
+				booking.addBatch();
+				int firstCleaner = 1 + data.nextInt(CLEANER_COUNT - 2);
+				for (int seat = 0, seats = 1 + data.nextInt(3); seat < seats; seat++) {
+					assignment.setInt(1, id);
+					assignment.setInt(2, firstCleaner + seat);
+					assignment.addBatch();
+				}
+				if (id % 10_000 == 0) {
+					booking.executeBatch();
+					assignment.executeBatch();
+					connection.commit();
+				}
+			}
+			booking.executeBatch();
+			assignment.executeBatch();
+			connection.commit();
+		}
+		connection.setAutoCommit(true);
+	}
+}
@@ -0,0 +1,333 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.BookingApplication;
+import com.example.booking.service.CleanerRoster;
+import com.example.booking.service.OccupancyRebuildJob;
+import com.example.booking.util.Util;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: starts the application on an embedded H2 in MySQL mode (schema from the Flyway
+ * migrations), seeds a roster and months of bookings, then replays a mix of availability checks, creates
+ * and updates at a fixed arrival rate and reports client latency, outcomes and SQL statements per request.
+ * Arrivals are open-loop and latency is measured from the scheduled send time, so a stalled server shows
+ * up as latency rather than as a lower request rate.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java -Dbenchmark.main=com.example.booking.benchmark.LoadTest
+ * -Dexec.args="cleaners=2000 days=60 rps=300 duration=120 mix=check:80,create:15,update:5"}; add
+ * {@code url=jdbc:mysql://... user=... password=...} to run against a scratch MySQL database instead.
+ */
+public class LoadTest {
+
+	private static final int[] DURATIONS = {2, 4};
+	private static final Duration[] BUCKETS = {millis(1), millis(2), millis(5), millis(10), millis(20), millis(50),
+			millis(100), millis(200), millis(500), millis(1000), millis(2000), millis(5000)};
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			options.put(pair[0], pair.length > 1 ? pair[1] : "");
+		}
+		int cleanerCount = Integer.parseInt(options.getOrDefault("cleaners", "2000"));
+		int cleanersPerVehicle = Integer.parseInt(options.getOrDefault("per-vehicle", "5"));
+		int days = Integer.parseInt(options.getOrDefault("days", "60"));
+		double occupancy = Double.parseDouble(options.getOrDefault("occupancy", "0.4"));
+		int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+		Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+		Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+		Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "check:80,create:15,update:5"));
+		String url = options.getOrDefault("url", "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+		try (ConfigurableApplicationContext context = start(url, options.getOrDefault("user", "sa"), options.getOrDefault("password", ""))) {
+			LocalDate firstDay = LocalDate.now().plusDays(1);
+			long seedStart = System.nanoTime();
+			int bookingCount = seed(context, url, firstDay, days, cleanerCount, cleanersPerVehicle, occupancy);
+			System.out.printf("Seeded %d cleaners and %d bookings over %d days in %d ms%n",
+					cleanerCount, bookingCount, days, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+			String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+			Workload workload = new Workload(baseUrl, firstDay, days, bookingCount, mix);
+			MeterRegistry appRegistry = context.getBean(MeterRegistry.class);
+
+			System.out.printf("Warming up for %ds at %d rps%n", warmup.toSeconds(), rps);
+			workload.run(rps, warmup, new SimpleMeterRegistry(), warmup.plus(duration));
+			Map<String, double[]> queriesBefore = queryTotals(appRegistry);
+
+			System.out.printf("Measuring for %ds at %d rps, mix %s%n", duration.toSeconds(), rps, mix);
+			SimpleMeterRegistry clientRegistry = new SimpleMeterRegistry();
+			long sent = workload.run(rps, duration, clientRegistry, duration.plusMinutes(1));
+			report(clientRegistry, sent, duration);
+			reportQueries(queriesBefore, queryTotals(appRegistry));
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String url, String user, String password) {
+		Map<String, Object> properties = new LinkedHashMap<>();
+		properties.put("spring.datasource.url", url);
+		properties.put("spring.datasource.username", user);
+		properties.put("spring.datasource.password", password);
+		properties.put("spring.datasource.driver-class-name", url.startsWith("jdbc:h2:") ? "org.h2.Driver" : "com.mysql.cj.jdbc.Driver");
+		properties.put("server.port", 0);
+		properties.put("logging.level.com.example.booking", "WARN");
+		return new SpringApplicationBuilder(BookingApplication.class).properties(properties).run();
+	}
+
+	// Every vehicle's cleaners work a few of the five two-hour slots of each working day, never overlapping
+	private static int seed(ConfigurableApplicationContext context, String url, LocalDate firstDay, int days,
+							int cleanerCount, int cleanersPerVehicle, double occupancy) {
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		int vehicleCount = (cleanerCount + cleanersPerVehicle - 1) / cleanersPerVehicle;
+		List<Object[]> vehicles = new ArrayList<>(vehicleCount);
+		List<Object[]> cleaners = new ArrayList<>(cleanerCount);
+		for (int id = 1; id <= cleanerCount; id++) {
+			int vehicleId = (id - 1) / cleanersPerVehicle + 1;
+			if ((id - 1) % cleanersPerVehicle == 0) {
+				vehicles.add(new Object[]{vehicleId, "Van " + vehicleId});
+			}
+			cleaners.add(new Object[]{id, "Cleaner " + id, vehicleId});
+		}
+		jdbc.batchUpdate("INSERT INTO vehicle (vehicle_id, vehicle_name) VALUES (?, ?)", vehicles);
+		jdbc.batchUpdate("INSERT INTO cleaner (cleaner_id, cleaner_name, vehicle_id) VALUES (?, ?, ?)", cleaners);
+
+		Random random = new Random(42);
+		LocalTime[] slots = {LocalTime.of(8, 0), LocalTime.of(10, 30), LocalTime.of(13, 0), LocalTime.of(15, 30), LocalTime.of(18, 0)};
+		List<Object[]> bookings = new ArrayList<>();
+		List<Object[]> assignments = new ArrayList<>();
+		int bookingId = 0;
+		for (LocalDate date = firstDay; date.isBefore(firstDay.plusDays(days)); date = date.plusDays(1)) {
+			if (!Util.isWorkingDay(date)) {
+				continue;
+			}
+			for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+				int seats = Math.min(cleanersPerVehicle, cleanerCount - vehicle * cleanersPerVehicle);
+				for (LocalTime slot : slots) {
+					if (random.nextDouble() >= occupancy) {
+						continue;
+					}
+					bookings.add(new Object[]{++bookingId, Date.valueOf(date), Time.valueOf(slot), 2});
+					for (int seat = 0, team = 1 + random.nextInt(Math.min(3, seats)); seat < team; seat++) {
+						assignments.add(new Object[]{bookingId, vehicle * cleanersPerVehicle + seat + 1});
+					}
+				}
+			}
+			jdbc.batchUpdate("INSERT INTO booking (booking_id, booking_date, booking_start_time, booking_duration) VALUES (?, ?, ?, ?)", bookings);
+			jdbc.batchUpdate("INSERT INTO cleaner_bookings (booking_id, cleaner_id) VALUES (?, ?)", assignments);
+			bookings.clear();
+			assignments.clear();
+		}
+		if (url.startsWith("jdbc:h2:")) {
+			// H2 does not move an identity past explicitly inserted ids the way MySQL's AUTO_INCREMENT does
+			jdbc.execute("ALTER TABLE cleaner ALTER COLUMN cleaner_id RESTART WITH " + (cleanerCount + 1));
+			jdbc.execute("ALTER TABLE booking ALTER COLUMN booking_id RESTART WITH " + (bookingId + 1));
+		}
+		context.getBean(OccupancyRebuildJob.class).rebuild(firstDay, firstDay.plusDays(days));
+		context.getBean(CleanerRoster.class).invalidate();
+		return bookingId;
+	}
+
+	private static void report(SimpleMeterRegistry registry, long sent, Duration duration) {
+		System.out.printf("%nSent %d requests, %.1f rps%n", sent, sent / (double) duration.toSeconds());
+		System.out.printf("%-8s %8s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+				"op", "count", "2xx", "4xx", "errors", "err %", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		Map<String, HistogramSnapshot> histograms = new LinkedHashMap<>();
+		for (Timer timer : registry.find("loadtest.request").timers()) {
+			String operation = timer.getId().getTag("op");
+			HistogramSnapshot snapshot = timer.takeSnapshot();
+			histograms.put(operation, snapshot);
+			long ok = outcomes(registry, operation, "2xx");
+			long rejected = outcomes(registry, operation, "4xx");
+			long errors = outcomes(registry, operation, "error");
+			double[] percentiles = new double[4];
+			for (ValueAtPercentile value : snapshot.percentileValues()) {
+				percentiles[percentileIndex(value.percentile())] = value.value(TimeUnit.MILLISECONDS);
+			}
+			System.out.printf("%-8s %8d %8d %8d %8d %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+					operation, timer.count(), ok, rejected, errors, 100.0 * errors / Math.max(1, timer.count()),
+					percentiles[0], percentiles[1], percentiles[2], percentiles[3], snapshot.max(TimeUnit.MILLISECONDS));
+		}
+		System.out.printf("%nLatency histogram, requests at or under each bound%n%-8s", "op");
+		for (Duration bucket : BUCKETS) {
+			System.out.printf(" %7s", bucket.toMillis() + "ms");
+		}
+		System.out.println();
+		histograms.forEach((operation, snapshot) -> {
+			System.out.printf("%-8s", operation);
+			for (CountAtBucket bucket : snapshot.histogramCounts()) {
+				System.out.printf(" %7d", (long) bucket.count());
+			}
+			System.out.println();
+		});
+	}
+
+	private static void reportQueries(Map<String, double[]> before, Map<String, double[]> after) {
+		System.out.printf("%nSQL statements per request%n%-40s %10s %10s%n", "uri", "requests", "mean");
+		after.forEach((uri, totals) -> {
+			double[] start = before.getOrDefault(uri, new double[2]);
+			long requests = (long) (totals[0] - start[0]);
+			if (requests > 0) {
+				System.out.printf("%-40s %10d %10.2f%n", uri, requests, (totals[1] - start[1]) / requests);
+			}
+		});
+	}
+
+	// count and total statements per URI pattern, as recorded by QueryCountFilter
+	private static Map<String, double[]> queryTotals(MeterRegistry registry) {
+		Map<String, double[]> totals = new LinkedHashMap<>();
+		for (DistributionSummary summary : registry.find("booking.http.queries").summaries()) {
+			totals.put(summary.getId().getTag("uri"), new double[]{summary.count(), summary.totalAmount()});
+		}
+		return totals;
+	}
+
+	private static long outcomes(MeterRegistry registry, String operation, String outcome) {
+		Counter counter = registry.find("loadtest.outcome").tag("op", operation).tag("outcome", outcome).counter();
+		return counter == null ? 0 : (long) counter.count();
+	}
+
+	private static int percentileIndex(double percentile) {
+		return percentile < 0.6 ? 0 : percentile < 0.95 ? 1 : percentile < 0.995 ? 2 : 3;
+	}
+
+	private static Map<String, Integer> parseMix(String mix) {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String entry : mix.split(",")) {
+			String[] pair = entry.split(":");
+			if (!List.of("check", "create", "update").contains(pair[0])) {
+				throw new IllegalArgumentException("Unknown operation " + pair[0] + " in mix " + mix);
+			}
+			weights.put(pair[0], Integer.parseInt(pair[1]));
+		}
+		return weights;
+	}
+
+	private static Duration millis(long millis) {
+		return Duration.ofMillis(millis);
+	}
+
+	/**
+	 * Random requests over the seeded horizon: availability checks and creates on any working day, updates
+	 * moving a random seeded booking to another slot.
+	 */
+	private static final class Workload {
+
+		private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		private final Random random = new Random(7);
+		private final String baseUrl;
+		private final LocalDate firstDay;
+		private final int days;
+		private final int bookingCount;
+		private final List<String> operations = new ArrayList<>();
+
+		Workload(String baseUrl, LocalDate firstDay, int days, int bookingCount, Map<String, Integer> mix) {
+			this.baseUrl = baseUrl;
+			this.firstDay = firstDay;
+			this.days = days;
+			this.bookingCount = bookingCount;
+			mix.forEach((operation, weight) -> {
+				for (int i = 0; i < weight; i++) {
+					operations.add(operation);
+				}
+			});
+		}
+
+		// Sends at the target rate for the given time, then waits for the stragglers; returns the requests sent
+		long run(int rps, Duration duration, MeterRegistry registry, Duration statisticsWindow) {
+			long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+			long start = System.nanoTime();
+			long end = start + duration.toNanos();
+			AtomicLong sent = new AtomicLong();
+			List<CompletableFuture<?>> inFlight = new ArrayList<>();
+			for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+				long wait = scheduled - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				String operation = operations.get(random.nextInt(operations.size()));
+				HttpRequest request = request(operation);
+				long intendedStart = scheduled;
+				sent.incrementAndGet();
+				inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+						.handle((response, failure) -> {
+							timer(registry, operation, statisticsWindow).record(System.nanoTime() - intendedStart, TimeUnit.NANOSECONDS);
+							String outcome = failure != null || response.statusCode() >= 500 ? "error"
+									: response.statusCode() >= 400 ? "4xx" : "2xx";
+							registry.counter("loadtest.outcome", "op", operation, "outcome", outcome).increment();
+							return null;
+						}));
+				inFlight.removeIf(CompletableFuture::isDone);
+			}
+			CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).exceptionally(e -> null).join();
+			return sent.get();
+		}
+
+		private HttpRequest request(String operation) {
+			LocalDate date = randomWorkingDay();
+			int duration = DURATIONS[random.nextInt(DURATIONS.length)];
+			LocalTime startTime = Util.cleanerShiftStart.plusMinutes(30L * random.nextInt((14 - duration) * 2 + 1));
+			HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(10));
+			return switch (operation) {
+				case "check" -> builder.uri(URI.create(baseUrl + "/api/availability/check?date=" + date
+						+ "&startTime=" + startTime + "&duration=" + duration)).GET().build();
+				case "create" -> builder.uri(URI.create(baseUrl + "/api/bookings/create"))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString(body(date, startTime, duration, 1 + random.nextInt(3)))).build();
+				default -> builder.uri(URI.create(baseUrl + "/api/bookings/update/" + (1 + random.nextInt(bookingCount))))
+						.header("Content-Type", "application/json")
+						.PUT(HttpRequest.BodyPublishers.ofString(body(date, startTime, duration, 1))).build();
+			};
+		}
+
+		private LocalDate randomWorkingDay() {
+			LocalDate date = firstDay.plusDays(random.nextInt(days));
+			return Util.isWorkingDay(date) ? date : date.plusDays(1);
+		}
+
+		private static String body(LocalDate date, LocalTime startTime, int duration, int cleanerCount) {
+			return "{\"bookingDate\":\"" + date + "\",\"bookingStartTime\":\"" + startTime + ":00\",\"bookingDuration\":"
+					+ duration + ",\"cleanerCount\":" + cleanerCount + "}";
+		}
+
+		private static Timer timer(MeterRegistry registry, String operation, Duration statisticsWindow) {
+			return Timer.builder("loadtest.request")
+					.tag("op", operation)
+					.publishPercentiles(0.5, 0.9, 0.99, 0.999)
+					.serviceLevelObjectives(BUCKETS)
+					// one window spanning the whole run, so percentiles cover every request
+					.distributionStatisticExpiry(statisticsWindow)
+					.distributionStatisticBufferLength(1)
+					.register(registry);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.booking.benchmark;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.TimeslotDTO;
+import com.example.booking.service.AvailabilityService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Single-cleaner slot arithmetic; neither method touches the roster or the schedule index
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlotBenchmark {
+	
+	@Param({"0", "2", "4"})
+	private int bookingsPerCleaner;
+	
+	private AvailabilityService availabilityService;
+	private List<Booking> bookings;
+	private List<TimeslotDTO> availableSlots;
+	private LocalDateTime requestStart;
+	private LocalDateTime requestEnd;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Cleaner> cleaners = BenchmarkFixtures.cleaners(1, 1);
+		availabilityService = new AvailabilityService(null, null, null, null, null);
+		bookings = BenchmarkFixtures.bookings(cleaners, bookingsPerCleaner);
+		availableSlots = availabilityService.getAvailableSlots(BenchmarkFixtures.DATE, bookings);
+		requestStart = LocalDateTime.of(BenchmarkFixtures.DATE, LocalTime.of(19, 0));
+		requestEnd = requestStart.plusHours(2);
+	}
+	
+	@Benchmark
+	public List<TimeslotDTO> getAvailableSlots() {
+		return availabilityService.getAvailableSlots(BenchmarkFixtures.DATE, bookings);
+	}
+	
+	@Benchmark
+	public boolean isSlotAvailable() {
+		return availabilityService.isSlotAvailable(availableSlots, requestStart, requestEnd);
+	}
+}
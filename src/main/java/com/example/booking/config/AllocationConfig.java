@@ -0,0 +1,16 @@
+package com.example.booking.config;
+
+import com.example.booking.service.AllocationStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AllocationConfig {
+
+	// first-fit, smallest-vehicle, best-gap or least-loaded
+	@Bean
+	public AllocationStrategy allocationStrategy(@Value("${booking.allocation.strategy:smallest-vehicle}") String name) {
+		return AllocationStrategy.named(name);
+	}
+}
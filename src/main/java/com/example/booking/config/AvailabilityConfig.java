@@ -0,0 +1,66 @@
+package com.example.booking.config;
+
+import com.example.booking.metrics.QueryCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AvailabilityConfig {
+
+	// Bounded in threads and queue; once both are full the requesting thread computes the day itself
+	@Bean
+	@ConditionalOnThreading(Threading.PLATFORM)
+	public ThreadPoolTaskExecutor availabilityExecutor(@Value("${availability.range.threads:4}") int threads,
+													   @Value("${availability.range.queue-capacity:256}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("availability-");
+		executor.setTaskDecorator(QueryCounter::propagate);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		return executor;
+	}
+
+	// With spring.threads.virtual.enabled (Java 21+) every day gets its own virtual thread, as requests already do
+	@Bean(name = "availabilityExecutor")
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	public SimpleAsyncTaskExecutor virtualAvailabilityExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("availability-");
+		executor.setTaskDecorator(QueryCounter::propagate);
+		executor.setVirtualThreads(true);
+		return executor;
+	}
+
+	// Runs the StreamingResponseBody of /check/stream. Declaring availabilityExecutor makes Boot's
+	// applicationTaskExecutor back off, so MVC would otherwise start an unbounded thread per streamed request.
+	// Once threads and queue are full the request is rejected instead of queueing without limit.
+	@Bean
+	@ConditionalOnThreading(Threading.PLATFORM)
+	public ThreadPoolTaskExecutor mvcAsyncExecutor(@Value("${availability.stream.threads:8}") int threads,
+												   @Value("${availability.stream.queue-capacity:64}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("mvc-async-");
+		executor.setTaskDecorator(QueryCounter::propagate);
+		return executor;
+	}
+
+	@Bean(name = "mvcAsyncExecutor")
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	public SimpleAsyncTaskExecutor virtualMvcAsyncExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+		executor.setTaskDecorator(QueryCounter::propagate);
+		executor.setVirtualThreads(true);
+		return executor;
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * With booking.datasource.replica.enabled, read-only transactions run on a replica pool and everything
+ * else on the primary pool configured by spring.datasource. Both pools are Hikari beans of their own,
+ * so each reports hikaricp.* metrics under its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// jdbc-url, username, password and any other Hikari setting, straight under booking.datasource.replica
+	@Bean
+	@ConfigurationProperties("booking.datasource.replica")
+	public HikariDataSource replicaDataSource() {
+		return new HikariDataSource();
+	}
+
+	// The lazy proxy defers taking a connection to the first statement, by which time the transaction's
+	// read-only flag is set; without it Hibernate would fetch one while the transaction is still beginning
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+								 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+		routing.setTargetDataSources(Map.of(
+				ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+				ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+		routing.setDefaultTargetDataSource(primaryDataSource);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
@@ -0,0 +1,23 @@
+package com.example.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class EventStreamConfig {
+
+	// Writes booking events to SSE subscribers, so a slow client holds one of these threads rather than the outbox poller.
+	// Each subscriber queues at most one drain task, so the queue only fills with more subscribers than it holds
+	@Bean
+	public ThreadPoolTaskExecutor eventStreamExecutor(@Value("${booking.events.send-threads:4}") int threads,
+													  @Value("${booking.events.send-queue-capacity:1024}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("booking-events-");
+		return executor;
+	}
+}
@@ -0,0 +1,23 @@
+package com.example.booking.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Streamed responses run on mvcAsyncExecutor rather than whatever Executor MVC would pick up by default
+@Configuration
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+	private final AsyncTaskExecutor mvcAsyncExecutor;
+
+	public WebMvcAsyncConfig(@Qualifier("mvcAsyncExecutor") AsyncTaskExecutor mvcAsyncExecutor) {
+		this.mvcAsyncExecutor = mvcAsyncExecutor;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(mvcAsyncExecutor);
+	}
+}
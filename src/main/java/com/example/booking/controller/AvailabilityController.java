@@ -1,18 +1,28 @@
 package com.example.booking.controller;
 
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSlotsDTO;
+import com.example.booking.model.DayAvailabilityDTO;
+import com.example.booking.model.NextSlotDTO;
 import com.example.booking.service.AvailabilityService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/availability")
@@ -21,12 +31,57 @@ import java.util.List;
 public class AvailabilityController {
 
     private final AvailabilityService availabilityService;
+    private final ObjectMapper objectMapper;
+
+    private static final int NDJSON_FLUSH_LINES = 64;
 
     @GetMapping(value = "/check")
     public List<CleanerDTO> checkCleanersAvailabilityByDate(@RequestParam("date") LocalDate date,
                                                             @RequestParam(value = "startTime", required = false) LocalTime startTime,
                                                             @RequestParam(value = "duration", required = false) Integer duration) {
-        //log.info("Checking availability for date: {}, start time: {}, duration: {}", date, startTime, duration);
+        log.debug("Checking availability for date: {}, start time: {}, duration: {}", date, startTime, duration);
         return availabilityService.getAvailableCleanerDtos(date, startTime, duration);
     }
+
+    // One JSON object per line, written as each cleaner is computed; slots are [from, to) minutes since midnight
+    @GetMapping(value = "/check/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCleanersAvailabilityByDate(@RequestParam("date") LocalDate date,
+                                                                                  @RequestParam(value = "startTime", required = false) LocalTime startTime,
+                                                                                  @RequestParam(value = "duration", required = false) Integer duration) {
+        Stream<CleanerSlotsDTO> cleaners = availabilityService.streamAvailableCleaners(date, startTime, duration);
+        StreamingResponseBody body = outputStream -> {
+            try (cleaners; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                for (Iterator<CleanerSlotsDTO> it = cleaners.iterator(); it.hasNext(); ) {
+                    generator.writeObject(it.next());
+                    generator.writeRaw('\n');
+                    // the first line goes out at once, later ones in batches
+                    if (++written % NDJSON_FLUSH_LINES == 1) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/next")
+    public ResponseEntity<NextSlotDTO> findNextAvailableSlot(@RequestParam("duration") int duration,
+                                                             @RequestParam("cleanerCount") int cleanerCount,
+                                                             @RequestParam(value = "from", required = false) LocalDate from) {
+        LocalDate searchFrom = from == null ? LocalDate.now() : from;
+        log.debug("Searching next slot from {} for {} cleaners, {} hours", searchFrom, cleanerCount, duration);
+        return ResponseEntity.of(availabilityService.findNextSlot(searchFrom, duration, cleanerCount));
+    }
+
+    // Every day is computed before anything is written, so a failing day still answers with an error status
+    // instead of a 200 and a truncated array; the days themselves are computed in parallel by the service
+    @GetMapping(value = "/range")
+    public List<DayAvailabilityDTO> checkCleanersAvailabilityByRange(@RequestParam("from") LocalDate from,
+                                                                     @RequestParam("to") LocalDate to) {
+        try (Stream<DayAvailabilityDTO> days = availabilityService.getAvailabilityRange(from, to)) {
+            return days.toList();
+        }
+    }
 }
@@ -1,15 +1,25 @@
 package com.example.booking.controller;
 
+import com.example.booking.model.BatchBookingResultDTO;
 import com.example.booking.model.BookingDTO;
+import com.example.booking.model.BookingSeriesDTO;
+import com.example.booking.service.BookingEventStream;
+import com.example.booking.service.BookingSeriesService;
 import com.example.booking.service.BookingService;
 import com.example.booking.validation.CreateValidationGroup;
 import com.example.booking.validation.UpdateValidationGroup;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -18,15 +28,45 @@ import org.springframework.web.bind.annotation.*;
 public class BookingController {
 	
 	private final BookingService bookingService;
+	private final BookingSeriesService bookingSeriesService;
+	private final BookingEventStream bookingEventStream;
+	
+	@Value("${booking.batch.max-size:500}")
+	private int maxBatchSize = 500;
 	
 	@PostMapping(value = "/create")
 	public ResponseEntity<BookingDTO> createBooking(@Validated(CreateValidationGroup.class) @RequestBody BookingDTO bookingDTO) {
 		return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.createBooking(bookingDTO));
 	}
 	
+	@PostMapping(value = "/batch")
+	public ResponseEntity<List<BatchBookingResultDTO>> createBookings(@RequestBody List<BookingDTO> bookingDTOs) {
+		// the shape of the batch is the request's fault as a whole; only its items are judged one by one
+		if (bookingDTOs.isEmpty()) {
+			throw new ValidationException("A batch must contain at least one booking");
+		}
+		if (bookingDTOs.size() > maxBatchSize) {
+			throw new ValidationException("A batch may contain at most " + maxBatchSize + " bookings");
+		}
+		if (bookingDTOs.contains(null)) {
+			throw new ValidationException("A batch may not contain null bookings");
+		}
+		return ResponseEntity.ok(bookingService.createBookings(bookingDTOs));
+	}
+	
+	@PostMapping(value = "/series")
+	public ResponseEntity<BookingSeriesDTO> createSeries(@Validated(CreateValidationGroup.class) @RequestBody BookingSeriesDTO seriesDTO) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(bookingSeriesService.createSeries(seriesDTO));
+	}
+	
 	@PutMapping(value = "/update/{bookingId}")
 	public ResponseEntity<BookingDTO> updateBooking(@PathVariable Integer bookingId,
 													@Validated(UpdateValidationGroup.class) @RequestBody BookingDTO bookingDTO) {
 		return ResponseEntity.ok(bookingService.updateBooking(bookingId, bookingDTO));
 	}
+	
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		return bookingEventStream.subscribe(lastEventId);
+	}
 }
@@ -24,6 +24,9 @@ public class Booking {
 	private LocalTime bookingStartTime;
 	private Integer bookingDuration;
 	
+	// set on occurrences SeriesMaterializer wrote for a BookingSeries
+	private Integer seriesId;
+	
 	@ManyToMany
 	@JoinTable (
 			name = "cleanerBookings",
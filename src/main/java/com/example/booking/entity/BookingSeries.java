@@ -0,0 +1,58 @@
+package com.example.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeries {
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer seriesId;
+	
+	// every occurrence falls on the weekday of the first one
+	@Column(nullable = false)
+	private LocalDate firstDate;
+	
+	@Column(nullable = false)
+	private LocalDate lastDate;
+	
+	@Column(nullable = false)
+	private Integer intervalWeeks;
+	
+	// the end of the rule as requested, exactly one of them is set
+	private Integer occurrenceCount;
+	private LocalDate untilDate;
+	
+	@Column(nullable = false)
+	private LocalTime bookingStartTime;
+	
+	@Column(nullable = false)
+	private Integer bookingDuration;
+	
+	// occurrences up to this date exist as bookings; later ones are overlaid by SeriesCalendar
+	@Column(nullable = false)
+	private LocalDate materializedThrough;
+	
+	@ManyToMany
+	@JoinTable (
+			name = "seriesCleaners",
+			joinColumns = @JoinColumn(name = "seriesId", referencedColumnName = "seriesId"),
+			inverseJoinColumns = @JoinColumn(name = "cleanerId", referencedColumnName = "cleanerId")
+	)
+	private List<Cleaner> cleaners;
+	
+	@Version
+	private Long version;
+}
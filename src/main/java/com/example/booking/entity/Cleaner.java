@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(RosterChangeListener.class)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
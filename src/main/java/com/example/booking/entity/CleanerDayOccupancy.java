@@ -0,0 +1,35 @@
+package com.example.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "cleaner_day_occupancy",
+		// date first, so reading a whole day is a range scan of this index
+		uniqueConstraints = @UniqueConstraint(name = "uk_cleaner_day", columnNames = {"occupancyDate", "cleanerId"}))
+public class CleanerDayOccupancy {
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer occupancyId;
+	private Integer cleanerId;
+	private LocalDate occupancyDate;
+	
+	// the cleaner's bookings that day in CleanerSchedule's compact encoding, kept in step with every booking write
+	@Builder.Default
+	@Column(nullable = false, length = 1024)
+	private String busyIntervals = "";
+	
+	// bumped by every booking write touching this cleaner on this day
+	@Version
+	private Long version;
+}
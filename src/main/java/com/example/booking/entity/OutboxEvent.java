@@ -0,0 +1,45 @@
+package com.example.booking.entity;
+
+import com.example.booking.model.BookingEventDTO;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "booking_outbox")
+public class OutboxEvent {
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long outboxId;
+	
+	// a plain VARCHAR, as V4 declares it; Hibernate would otherwise expect a native ENUM column on MySQL
+	@Enumerated(EnumType.STRING)
+	@JdbcTypeCode(SqlTypes.VARCHAR)
+	@Column(nullable = false, length = 32)
+	private BookingEventDTO.Type eventType;
+	
+	// null on SERIES_CREATED and OCCURRENCE_SKIPPED
+	private Integer bookingId;
+	
+	// instance that wrote the event, so it can skip invalidating caches it already updated itself
+	@Column(nullable = false, length = 36)
+	private String origin;
+	
+	// the BookingEventDTO as JSON
+	@Column(nullable = false, length = 2048)
+	private String payload;
+	
+	@Column(nullable = false)
+	private LocalDateTime occurredAt;
+}
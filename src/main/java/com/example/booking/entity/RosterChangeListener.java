@@ -0,0 +1,26 @@
+package com.example.booking.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener on Cleaner and Vehicle that announces their changes as a RosterChangedEvent,
+ * so whatever caches the roster can drop it without the entities knowing about it.
+ */
+@Component
+@RequiredArgsConstructor
+public class RosterChangeListener {
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onRosterChange(Object entity) {
+		eventPublisher.publishEvent(new RosterChangedEvent(entity));
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.booking.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// A Cleaner or Vehicle was written in the current transaction
+@Getter
+@RequiredArgsConstructor
+public class RosterChangedEvent {
+
+	private final Object entity;
+}
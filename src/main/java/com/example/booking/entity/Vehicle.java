@@ -2,11 +2,13 @@ package com.example.booking.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import lombok.Data;
 
 @Data
 @Entity
+@EntityListeners(RosterChangeListener.class)
 public class Vehicle {
 	
 	@Id
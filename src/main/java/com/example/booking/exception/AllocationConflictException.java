@@ -0,0 +1,8 @@
+package com.example.booking.exception;
+
+// Raised inside an allocation transaction when the chosen cleaners were taken concurrently; the allocation is retried
+public class AllocationConflictException extends RuntimeException {
+	public AllocationConflictException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.booking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ValidationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the booking and availability hot paths. Timers are tagged with the outcome so rejected
+ * requests do not skew the latency of successful ones.
+ */
+@Component
+public class BookingMetrics {
+
+	public static final String AVAILABILITY_CHECK = "booking.availability.check";
+	public static final String AVAILABILITY_NEXT = "booking.availability.next";
+	public static final String CREATE = "booking.create";
+	public static final String CREATE_BATCH = "booking.create.batch";
+	public static final String CREATE_SERIES = "booking.create.series";
+	public static final String UPDATE = "booking.update";
+
+	public static final String NO_CLEANERS = "no_cleaners";
+	public static final String NOT_ENOUGH_CLEANERS = "not_enough_cleaners";
+	public static final String CONCURRENT_CONFLICT = "concurrent_conflict";
+	public static final String RETRIES_EXHAUSTED = "retries_exhausted";
+	public static final String INVALID_REQUEST = "invalid_request";
+
+	private final MeterRegistry registry;
+	private final DistributionSummary cleanersScanned;
+	private final DistributionSummary slotsComputed;
+	private final Timer lockWait;
+
+	public BookingMetrics(MeterRegistry registry) {
+		this.registry = registry;
+		this.cleanersScanned = DistributionSummary.builder("booking.availability.cleaners.scanned")
+				.description("Cleaners evaluated per availability computation")
+				.register(registry);
+		this.slotsComputed = DistributionSummary.builder("booking.availability.slots.computed")
+				.description("Free slots produced per availability computation")
+				.register(registry);
+		this.lockWait = Timer.builder("booking.allocation.lock.wait")
+				.description("Time spent acquiring the cleaner-day locks")
+				.register(registry);
+	}
+
+	public <T> T time(String timerName, Supplier<T> operation) {
+		long start = System.nanoTime();
+		String outcome = "error";
+		try {
+			T result = operation.get();
+			outcome = "success";
+			return result;
+		} catch (ValidationException e) {
+			outcome = "rejected";
+			throw e;
+		} finally {
+			registry.timer(timerName, "outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	public void recordAvailabilityComputed(int cleaners, int slots) {
+		cleanersScanned.record(cleaners);
+		slotsComputed.record(slots);
+	}
+
+	public <T> T timeLockWait(Supplier<T> acquire) {
+		long start = System.nanoTime();
+		try {
+			return acquire.get();
+		} finally {
+			lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	public void recordAllocationFailure(String reason) {
+		allocationFailures(reason).increment();
+	}
+
+	private Counter allocationFailures(String reason) {
+		return Counter.builder("booking.allocation.failures")
+				.description("Bookings that could not be allocated")
+				.tag("reason", reason)
+				.register(registry);
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.booking.metrics;
+
+import com.example.booking.service.AvailabilityCache;
+import com.example.booking.service.CleanerRoster;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Publishes the roster and availability cache statistics under Micrometer's usual cache meter names
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+	private final CleanerRoster cleanerRoster;
+	private final AvailabilityCache availabilityCache;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("cache.gets", cleanerRoster, roster -> roster.getStats().hitCount())
+				.tags("cache", "roster", "result", "hit").register(registry);
+		FunctionCounter.builder("cache.gets", cleanerRoster, roster -> roster.getStats().missCount())
+				.tags("cache", "roster", "result", "miss").register(registry);
+
+		FunctionCounter.builder("cache.gets", availabilityCache, cache -> cache.getStats().hitCount())
+				.tags("cache", "availability", "result", "hit").register(registry);
+		FunctionCounter.builder("cache.gets", availabilityCache, cache -> cache.getStats().missCount())
+				.tags("cache", "availability", "result", "miss").register(registry);
+		FunctionCounter.builder("cache.evictions", availabilityCache, cache -> cache.getStats().evictionCount())
+				.tags("cache", "availability").register(registry);
+		FunctionCounter.builder("cache.evictions.date", availabilityCache, AvailabilityCache::getDateEvictions)
+				.tags("cache", "availability")
+				.description("Whole dates dropped after a booking write").register(registry);
+		Gauge.builder("cache.size", availabilityCache, AvailabilityCache::getSize)
+				.tags("cache", "availability").register(registry);
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.booking.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many SQL statements each request issued, per URI pattern, so N+1 regressions show up
+ * as a shift in the distribution rather than only as latency. Asynchronous requests are recorded once they
+ * complete, including what the executors running their work issued.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry registry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		AtomicInteger queries = QueryCounter.start();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			QueryCounter.stop();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			if (request.isAsyncStarted()) {
+				// streamed responses issue their statements on executor threads, after this dispatch returned
+				request.getAsyncContext().addListener(new AsyncListener() {
+					@Override
+					public void onComplete(AsyncEvent event) {
+						record(pattern, queries.get());
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			} else {
+				record(pattern, queries.get());
+			}
+		}
+	}
+
+	private void record(Object pattern, int queries) {
+		DistributionSummary.builder("booking.http.queries")
+				.description("SQL statements issued per request")
+				.tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+				.register(registry)
+				.record(queries);
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.booking.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, and on the executor threads running
+ * tasks it handed off through {@link #propagate}. Registered through hibernate.session_factory.statement_inspector,
+ * so Hibernate instantiates it outside of Spring.
+ */
+public class QueryCounter implements StatementInspector {
+
+	private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		AtomicInteger count = COUNT.get();
+		if (count != null) {
+			count.incrementAndGet();
+		}
+		return sql;
+	}
+
+	// Starts counting on this thread; the count keeps growing with the statements of tasks propagated from it
+	public static AtomicInteger start() {
+		AtomicInteger count = new AtomicInteger();
+		COUNT.set(count);
+		return count;
+	}
+
+	// Stops counting on this thread, tasks already handed off keep counting
+	public static void stop() {
+		COUNT.remove();
+	}
+
+	// A TaskDecorator: the task's statements count towards whatever the submitting thread is counting
+	public static Runnable propagate(Runnable task) {
+		AtomicInteger count = COUNT.get();
+		if (count == null) {
+			return task;
+		}
+		return () -> {
+			// a caller-runs executor runs the task on a thread that may be counting already
+			AtomicInteger previous = COUNT.get();
+			COUNT.set(count);
+			try {
+				task.run();
+			} finally {
+				if (previous == null) {
+					COUNT.remove();
+				} else {
+					COUNT.set(previous);
+				}
+			}
+		};
+	}
+}
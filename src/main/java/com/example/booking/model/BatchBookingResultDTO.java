@@ -0,0 +1,21 @@
+package com.example.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResultDTO {
+
+	public enum Status { CREATED, REJECTED }
+	
+	// position of the request in the submitted batch
+	private int index;
+	private Status status;
+	private BookingDTO booking;
+	private String error;
+}
@@ -0,0 +1,43 @@
+package com.example.booking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * One booking change as delivered to listeners and /api/bookings/events. The previous* fields are only
+ * set on BOOKING_RESCHEDULED and CLEANERS_REASSIGNED. seriesId is set on SERIES_CREATED, which describes
+ * the series' first occurrence and carries no bookingId, on BOOKING_CREATED for occurrences of a series, and
+ * on OCCURRENCE_SKIPPED, an occurrence that was booked over before it could be written and carries no bookingId either.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEventDTO {
+
+	public enum Type { BOOKING_CREATED, BOOKING_RESCHEDULED, CLEANERS_REASSIGNED, SERIES_CREATED, OCCURRENCE_SKIPPED }
+	
+	// outbox id, increasing in commit order except for events delivered late out of a gap
+	private Long eventId;
+	private Type type;
+	private Integer bookingId;
+	private Integer seriesId;
+	private LocalDate bookingDate;
+	private LocalTime bookingStartTime;
+	private Integer bookingDuration;
+	private List<Integer> cleanerIds;
+	private LocalDate previousBookingDate;
+	private List<Integer> previousCleanerIds;
+	private LocalDateTime occurredAt;
+	
+	@JsonIgnore
+	private String origin;
+}
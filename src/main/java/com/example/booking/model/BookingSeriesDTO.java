@@ -0,0 +1,64 @@
+package com.example.booking.model;
+
+import com.example.booking.validation.CreateValidationGroup;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeriesDTO {
+	
+	private Integer seriesId;
+	
+	private List<CleanerDTO> cleaners;
+	
+	@NotNull(message = "Series start date is missing", groups = CreateValidationGroup.class)
+	private LocalDate startDate;
+	
+	// when set, the series starts on the first such day on or after startDate
+	private DayOfWeek dayOfWeek;
+	
+	private int intervalWeeks;
+	@AssertTrue(message = "A series repeats either every week or every other week.", groups = CreateValidationGroup.class)
+	public boolean isValidIntervalWeeks() {
+		return intervalWeeks == 1 || intervalWeeks == 2;
+	}
+	
+	@Min(value = 1, message = "A series needs at least 1 occurrence.", groups = CreateValidationGroup.class)
+	private Integer occurrences;
+	
+	private LocalDate untilDate;
+	@AssertTrue(message = "A series ends after either a number of occurrences or an until date.", groups = CreateValidationGroup.class)
+	public boolean isValidEnd() {
+		return (occurrences == null) != (untilDate == null);
+	}
+	
+	@NotNull(message = "Booking start time is missing", groups = CreateValidationGroup.class)
+	private LocalTime bookingStartTime;
+	
+	private int bookingDuration;
+	@AssertTrue(message = "Booking duration must be either 2 or 4 hours.", groups = CreateValidationGroup.class)
+	public boolean isValidBookingDuration() {
+		return bookingDuration == 2 || bookingDuration == 4;
+	}
+	
+	@Min(value = 1, message = "Minimum 1 cleaner is required.", groups = CreateValidationGroup.class)
+	@Max(value = 3, message = "Maximum 3 cleaners are allowed.", groups = CreateValidationGroup.class)
+	private int cleanerCount;
+	
+	// filled in on the response, Fridays already left out
+	private List<LocalDate> occurrenceDates;
+}
@@ -0,0 +1,11 @@
+package com.example.booking.model;
+
+import lombok.Value;
+
+@Value
+public class BusyInterval {
+	Integer bookingId;
+	// minutes since midnight, end exclusive
+	int startMinute;
+	int endMinute;
+}
@@ -0,0 +1,16 @@
+package com.example.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// One booking as seen by one of its cleaners, read without loading Booking or Cleaner entities
+@Value
+public class CleanerBookingSlot {
+	Integer cleanerId;
+	Integer bookingId;
+	LocalDate bookingDate;
+	LocalTime bookingStartTime;
+	Integer bookingDuration;
+}
@@ -1,6 +1,5 @@
 package com.example.booking.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,6 +15,4 @@ public class CleanerDTO {
 	private Integer cleanerId;
 	private String cleanerName;
 	private List<TimeslotDTO> slotsAvailable;
-	@JsonIgnore
-	private List<TimeslotDTO> bookings;
 }
@@ -0,0 +1,13 @@
+package com.example.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+// Read-only view of a cleaner_day_occupancy row, for the availability path that never writes it back
+@Value
+public class CleanerDayIntervals {
+	LocalDate occupancyDate;
+	Integer cleanerId;
+	String busyIntervals;
+}
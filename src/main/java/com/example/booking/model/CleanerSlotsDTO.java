@@ -0,0 +1,19 @@
+package com.example.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Streaming counterpart of CleanerDTO: free slots as [from, to) pairs of minutes since midnight
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CleanerSlotsDTO {
+	private Integer cleanerId;
+	private String cleanerName;
+	private List<int[]> slots;
+}
@@ -0,0 +1,21 @@
+package com.example.booking.model;
+
+import com.example.booking.entity.Cleaner;
+import lombok.Value;
+
+@Value
+public class CleanerSnapshot {
+	Integer cleanerId;
+	String cleanerName;
+	// null when the cleaner has no vehicle assigned
+	Integer vehicleId;
+	String vehicleName;
+	
+	public static CleanerSnapshot of(Cleaner cleaner) {
+		if (cleaner.getVehicle() == null) {
+			return new CleanerSnapshot(cleaner.getCleanerId(), cleaner.getCleanerName(), null, null);
+		}
+		return new CleanerSnapshot(cleaner.getCleanerId(), cleaner.getCleanerName(),
+				cleaner.getVehicle().getVehicleId(), cleaner.getVehicle().getVehicleName());
+	}
+}
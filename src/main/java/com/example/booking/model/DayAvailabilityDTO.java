@@ -0,0 +1,18 @@
+package com.example.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DayAvailabilityDTO {
+	private LocalDate date;
+	private List<CleanerDTO> cleaners;
+}
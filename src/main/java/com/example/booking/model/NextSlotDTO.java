@@ -0,0 +1,22 @@
+package com.example.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NextSlotDTO {
+	private LocalDate date;
+	private LocalTime startTime;
+	private int duration;
+	private Integer vehicleId;
+	private List<CleanerDTO> cleaners;
+}
@@ -0,0 +1,19 @@
+package com.example.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// The rule of a booking series as seen by one of its cleaners, read without loading BookingSeries or Cleaner entities
+@Value
+public class SeriesCleanerSlot {
+	Integer seriesId;
+	Integer cleanerId;
+	LocalDate firstDate;
+	LocalDate lastDate;
+	Integer intervalWeeks;
+	LocalDate materializedThrough;
+	LocalTime bookingStartTime;
+	Integer bookingDuration;
+}
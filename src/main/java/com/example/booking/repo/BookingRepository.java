@@ -1,15 +1,51 @@
 package com.example.booking.repo;
 
 import com.example.booking.entity.Booking;
+import com.example.booking.model.CleanerBookingSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
-	@Query("SELECT b FROM Booking b JOIN b.cleaners Cleaner WHERE b.bookingDate = :bookingDate AND Cleaner.cleanerId = :cleanerId")
-	List<Booking> findByBookingDateAndCleanerId(LocalDate bookingDate, Integer cleanerId);
+	// Bookings are loaded by id to be changed, so this read never goes to the replica the inherited read-only default would pick
+	@Override
+	@Transactional
+	Optional<Booking> findById(Integer bookingId);
+	
+	@Query("SELECT MAX(b.bookingDate) FROM Booking b")
+	LocalDate findLatestBookingDate();
+	
+	// Availability reads need no entities: one flat row per booked cleaner, straight from the join table
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingDate = :bookingDate")
+	List<CleanerBookingSlot> findSlotsByBookingDate(LocalDate bookingDate);
+	
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingDate BETWEEN :fromDate AND :toDate")
+	List<CleanerBookingSlot> findSlotsByBookingDateBetween(LocalDate fromDate, LocalDate toDate);
+	
+	// Scattered days, such as the occurrences of a series, without reading the days in between
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingDate IN :bookingDates")
+	List<CleanerBookingSlot> findSlotsByBookingDateIn(Collection<LocalDate> bookingDates);
+	
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingDate = :bookingDate AND c.cleanerId IN :cleanerIds")
+	List<CleanerBookingSlot> findSlotsByBookingDateAndCleanerIds(LocalDate bookingDate, Collection<Integer> cleanerIds);
+	
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingDate BETWEEN :fromDate AND :toDate AND c.cleanerId IN :cleanerIds")
+	List<CleanerBookingSlot> findSlotsByBookingDateBetweenAndCleanerIds(LocalDate fromDate, LocalDate toDate, Collection<Integer> cleanerIds);
+	
+	// A booking as it stands, one row per cleaner; runs outside any read-only transaction, so on the primary
+	@Query("SELECT new com.example.booking.model.CleanerBookingSlot(c.cleanerId, b.bookingId, b.bookingDate, b.bookingStartTime, b.bookingDuration) " +
+			"FROM Booking b JOIN b.cleaners c WHERE b.bookingId = :bookingId")
+	List<CleanerBookingSlot> findSlotsByBookingId(Integer bookingId);
 }
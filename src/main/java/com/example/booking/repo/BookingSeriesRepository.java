@@ -0,0 +1,28 @@
+package com.example.booking.repo;
+
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.model.SeriesCleanerSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeries, Integer> {
+	// A series is loaded by id to be materialized, so this read never goes to the replica the inherited read-only default would pick
+	@Override
+	@Transactional
+	Optional<BookingSeries> findById(Integer seriesId);
+	
+	// Every series with occurrences not yet written as bookings, one flat row per series cleaner. SeriesCalendar
+	// caches them until a series write commits, so they are read from the primary even inside a read-only transaction
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	@Query("SELECT new com.example.booking.model.SeriesCleanerSlot(s.seriesId, c.cleanerId, s.firstDate, s.lastDate, s.intervalWeeks, " +
+			"s.materializedThrough, s.bookingStartTime, s.bookingDuration) " +
+			"FROM BookingSeries s JOIN s.cleaners c WHERE s.lastDate > s.materializedThrough ORDER BY s.seriesId")
+	List<SeriesCleanerSlot> findPendingSlots();
+}
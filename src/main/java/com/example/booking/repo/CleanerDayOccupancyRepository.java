@@ -0,0 +1,34 @@
+package com.example.booking.repo;
+
+import com.example.booking.entity.CleanerDayOccupancy;
+import com.example.booking.model.CleanerDayIntervals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CleanerDayOccupancyRepository extends JpaRepository<CleanerDayOccupancy, Integer> {
+	@Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+	List<CleanerDayOccupancy> findByOccupancyDateAndCleanerIdIn(LocalDate occupancyDate, Collection<Integer> cleanerIds);
+	
+	List<CleanerDayOccupancy> findAllByOccupancyDate(LocalDate occupancyDate);
+	
+	// Schedules are decoded from these and never written back, so the rows are not loaded as managed entities
+	@Query("SELECT new com.example.booking.model.CleanerDayIntervals(o.occupancyDate, o.cleanerId, o.busyIntervals) " +
+			"FROM CleanerDayOccupancy o WHERE o.occupancyDate = :occupancyDate")
+	List<CleanerDayIntervals> findIntervalsByOccupancyDate(LocalDate occupancyDate);
+	
+	@Query("SELECT new com.example.booking.model.CleanerDayIntervals(o.occupancyDate, o.cleanerId, o.busyIntervals) " +
+			"FROM CleanerDayOccupancy o WHERE o.occupancyDate BETWEEN :fromDate AND :toDate")
+	List<CleanerDayIntervals> findIntervalsByOccupancyDateBetween(LocalDate fromDate, LocalDate toDate);
+	
+	@Query("SELECT new com.example.booking.model.CleanerDayIntervals(o.occupancyDate, o.cleanerId, o.busyIntervals) " +
+			"FROM CleanerDayOccupancy o WHERE o.occupancyDate IN :occupancyDates")
+	List<CleanerDayIntervals> findIntervalsByOccupancyDateIn(Collection<LocalDate> occupancyDates);
+}
@@ -1,7 +1,19 @@
 package com.example.booking.repo;
 
 import com.example.booking.entity.Cleaner;
+import com.example.booking.model.CleanerSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 public interface CleanerRepository extends JpaRepository<Cleaner,Integer> {
+	// Cleaners and their vehicles as flat rows; neither entity nor the booking history is loaded. The roster is
+	// cached until a cleaner write commits, so it is read from the primary even inside a read-only transaction
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	@Query("SELECT new com.example.booking.model.CleanerSnapshot(c.cleanerId, c.cleanerName, v.vehicleId, v.vehicleName) " +
+			"FROM Cleaner c LEFT JOIN c.vehicle v ORDER BY c.cleanerId")
+	List<CleanerSnapshot> findAllSnapshots();
 }
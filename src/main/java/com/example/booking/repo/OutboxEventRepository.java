@@ -0,0 +1,28 @@
+package com.example.booking.repo;
+
+import com.example.booking.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+	List<OutboxEvent> findByOutboxIdGreaterThanOrderByOutboxIdAsc(Long outboxId, Limit limit);
+	
+	List<OutboxEvent> findByOutboxIdInOrderByOutboxIdAsc(Collection<Long> outboxIds);
+	
+	@Query("SELECT MAX(e.outboxId) FROM OutboxEvent e")
+	Long findLatestOutboxId();
+	
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM OutboxEvent e WHERE e.occurredAt < :cutoff")
+	int deleteOccurredBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,28 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerSnapshot;
+
+import java.util.List;
+
+/**
+ * Chooses which free cleaners serve a booking. Every strategy picks among cleaners that are already free
+ * for the slot and keeps a team to one vehicle; they differ in how the choice shapes the rest of the day.
+ */
+public interface AllocationStrategy {
+
+	String name();
+
+	// Exactly teamSize cleaners sharing one vehicle, or an empty list when no vehicle has enough
+	List<CleanerSnapshot> select(VehicleTeams teams, DaySchedule daySchedule, int startMinute, int endMinute, int teamSize);
+
+	static List<AllocationStrategy> all() {
+		return List.of(new FirstFitStrategy(), new SmallestVehicleStrategy(), new BestGapStrategy(), new LeastLoadedStrategy());
+	}
+
+	static AllocationStrategy named(String name) {
+		return all().stream()
+				.filter(strategy -> strategy.name().equals(name))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown allocation strategy: " + name));
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of /api/availability/check results. An entry is only served while the day schedule
+ * and roster it was computed from are still the current ones, so a write racing a read can never leave
+ * a stale result behind; evicting a date on every booking write just frees the space early.
+ */
+@Component
+public class AvailabilityCache {
+
+	private final StatsCounter stats = new ConcurrentStatsCounter();
+	private final LongAdder dateEvictions = new LongAdder();
+	private final Cache<Key, Entry> cache;
+
+	public AvailabilityCache(@Value("${availability.cache.max-size:10000}") long maxSize,
+							 @Value("${availability.cache.ttl:PT30S}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttl)
+				.recordStats(() -> stats)
+				.build();
+	}
+
+	// Hits and misses are recorded here rather than by the cache, because an outdated entry counts as a miss
+	public List<CleanerDTO> get(LocalDate date, LocalTime startTime, Integer duration, DaySchedule daySchedule,
+								List<CleanerSnapshot> roster, Supplier<List<CleanerDTO>> loader) {
+		Key key = new Key(date, startTime, duration);
+		Entry entry = cache.asMap().get(key);
+		if (entry != null && entry.getDaySchedule() == daySchedule && entry.getRoster() == roster) {
+			stats.recordHits(1);
+			return entry.getCleaners();
+		}
+		stats.recordMisses(1);
+		List<CleanerDTO> cleaners = List.copyOf(loader.get());
+		cache.put(key, new Entry(daySchedule, roster, cleaners));
+		return cleaners;
+	}
+
+	public void evict(LocalDate date) {
+		if (cache.asMap().keySet().removeIf(key -> key.getDate().equals(date))) {
+			dateEvictions.increment();
+		}
+	}
+
+	public CacheStats getStats() {
+		return stats.snapshot();
+	}
+
+	public long getSize() {
+		return cache.estimatedSize();
+	}
+
+	public long getDateEvictions() {
+		return dateEvictions.sum();
+	}
+
+	@lombok.Value
+	private static class Key {
+		LocalDate date;
+		LocalTime startTime;
+		Integer duration;
+	}
+
+	@lombok.Value
+	private static class Entry {
+		DaySchedule daySchedule;
+		List<CleanerSnapshot> roster;
+		List<CleanerDTO> cleaners;
+	}
+}
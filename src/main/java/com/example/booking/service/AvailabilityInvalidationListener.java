@@ -0,0 +1,46 @@
+package com.example.booking.service;
+
+import com.example.booking.model.BookingEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Drops the resident schedule and cached availability of the dates a booking change touched on another
+ * instance. Changes made here are already written through by BookingService. A change to a booking series
+ * also drops the series calendar, and a new series every resident day from its first occurrence on.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityInvalidationListener implements BookingEventListener {
+
+	private final BookingOutbox bookingOutbox;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final SeriesCalendar seriesCalendar;
+
+	@Override
+	public void onBookingEvent(BookingEventDTO event) {
+		if (bookingOutbox.isLocal(event)) {
+			return;
+		}
+		if (event.getSeriesId() != null) {
+			seriesCalendar.invalidate();
+		}
+		if (event.getType() == BookingEventDTO.Type.SERIES_CREATED) {
+			// cached availability is keyed to the day instances dropped here, so it is never served again
+			scheduleIndex.evictFrom(event.getBookingDate());
+			return;
+		}
+		evict(event.getBookingDate());
+		if (event.getPreviousBookingDate() != null && !event.getPreviousBookingDate().equals(event.getBookingDate())) {
+			evict(event.getPreviousBookingDate());
+		}
+	}
+
+	private void evict(LocalDate date) {
+		scheduleIndex.evict(date);
+		availabilityCache.evict(date);
+	}
+}
@@ -2,24 +2,36 @@ package com.example.booking.service;
 
 import com.example.booking.entity.Booking;
 import com.example.booking.entity.Cleaner;
+import com.example.booking.metrics.BookingMetrics;
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSlotsDTO;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.model.DayAvailabilityDTO;
+import com.example.booking.model.NextSlotDTO;
 import com.example.booking.model.TimeslotDTO;
-import com.example.booking.repo.BookingRepository;
-import com.example.booking.repo.CleanerRepository;
-import com.example.booking.util.Util;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.example.booking.service.CleanerSchedule.minuteOf;
+import static com.example.booking.service.CleanerSchedule.timeOf;
+import static com.example.booking.util.Util.isWorkingDay;
 import static com.example.booking.util.Util.validateWorkingDay;
 import static com.example.booking.util.Util.validateWorkingHours;
 
@@ -27,141 +39,296 @@ import static com.example.booking.util.Util.validateWorkingHours;
 @Slf4j
 @RequiredArgsConstructor
 public class AvailabilityService {
-	
-	private static final Integer BREAK_MINUTES = 30;
-	private static final Duration BREAK_DURATION = Duration.ofMinutes(BREAK_MINUTES);
-	private final BookingRepository bookingRepo;
-	private final CleanerRepository cleanerRepo;
-	
+
+	private final CleanerRoster cleanerRoster;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final Executor availabilityExecutor;
+	private final BookingMetrics bookingMetrics;
+
+	@Value("${availability.range.max-days:31}")
+	private int maxRangeDays = 31;
+	@Value("${availability.next.max-days:60}")
+	private int maxNextDays = 60;
+
 	public List<CleanerDTO> getAvailableCleanerDtos(LocalDate date, LocalTime startTime, Integer duration) { //skipped
-		validateWorkingDay(date);
-		validateWorkingHours(date, startTime, duration);
-		List<Cleaner> cleaners = cleanerRepo.findAll();
+		return bookingMetrics.time(BookingMetrics.AVAILABILITY_CHECK, () -> {
+			validateWorkingDay(date);
+			validateWorkingHours(date, startTime, duration);
+			List<CleanerSnapshot> cleaners = cleanerRoster.getCleaners();
+			DaySchedule daySchedule = scheduleIndex.getDay(date);
+			return availabilityCache.get(date, startTime, duration, daySchedule, cleaners,
+					() -> getAvailableCleanerDtos(cleaners, daySchedule, startTime, duration));
+		});
+	}
+
+	// Days are computed in parallel and handed out in date order as each one completes. The days are scoped
+	// to the returned stream: the first failing day, or closing the stream early, cancels those not yet started.
+	// Days not resident in the index are read from the replica; they are used for this response only.
+	@Transactional(readOnly = true)
+	public Stream<DayAvailabilityDTO> getAvailabilityRange(LocalDate from, LocalDate to) {
+		if (to.isBefore(from)) {
+			throw new ValidationException("Range end is before its start");
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+			throw new ValidationException("Range may span at most " + maxRangeDays + " days");
+		}
+		List<CleanerSnapshot> cleaners = cleanerRoster.getCleaners();
+		List<CompletableFuture<DayAvailabilityDTO>> days = new ArrayList<>();
+		scheduleIndex.getDays(from, to).forEach((date, daySchedule) -> {
+			if (isWorkingDay(date)) {
+				days.add(CompletableFuture.supplyAsync(() -> DayAvailabilityDTO.builder()
+						.date(date)
+						.cleaners(getAvailableCleanerDtos(cleaners, daySchedule, null, null))
+						.build(), availabilityExecutor));
+			}
+		});
+		days.forEach(day -> day.whenComplete((result, failure) -> {
+			if (failure != null) {
+				cancelAll(days);
+			}
+		}));
+		return days.stream().map(CompletableFuture::join).onClose(() -> cancelAll(days));
+	}
+
+	private static void cancelAll(List<CompletableFuture<DayAvailabilityDTO>> days) {
+		days.forEach(day -> day.cancel(false));
+	}
+
+	// Earliest slot, from the given date on, where cleanerCount cleaners of one vehicle are all free for the duration
+	@Transactional(readOnly = true)
+	public Optional<NextSlotDTO> findNextSlot(LocalDate from, int duration, int cleanerCount) {
+		return bookingMetrics.time(BookingMetrics.AVAILABILITY_NEXT, () -> {
+			if (duration != 2 && duration != 4) {
+				throw new ValidationException("Booking duration must be either 2 or 4 hours.");
+			}
+			if (cleanerCount < 1) {
+				throw new ValidationException("Minimum 1 cleaner is required.");
+			}
+			if (cleanerCount > 3) {
+				throw new ValidationException("Maximum 3 cleaners are allowed.");
+			}
+			LocalDate today = LocalDate.now();
+			if (from.isBefore(today)) {
+				throw new ValidationException("Search cannot start in the past");
+			}
+			VehicleTeams vehicles = VehicleTeams.of(cleanerRoster.getCleaners());
+			LocalDate last = from.plusDays(maxNextDays - 1L);
+			// a week per schedule lookup, so a far-off first slot costs a few queries rather than one per day
+			for (LocalDate weekStart = from; !weekStart.isAfter(last); weekStart = weekStart.plusWeeks(1)) {
+				LocalDate weekEnd = weekStart.plusDays(6).isAfter(last) ? last : weekStart.plusDays(6);
+				for (DaySchedule daySchedule : scheduleIndex.getDays(weekStart, weekEnd).values()) {
+					if (!isWorkingDay(daySchedule.getDate())) {
+						continue;
+					}
+					// today only offers starts from the next quarter hour on
+					int notBefore = daySchedule.getDate().equals(today)
+							? (minuteOf(LocalTime.now()) + SlotMask.TICK_MINUTES - 1) / SlotMask.TICK_MINUTES * SlotMask.TICK_MINUTES
+							: SlotMask.SHIFT_START_MINUTE;
+					Optional<NextSlotDTO> slot = findEarliestSlot(daySchedule, vehicles, duration, cleanerCount, notBefore);
+					if (slot.isPresent()) {
+						return slot;
+					}
+				}
+			}
+			return Optional.empty();
+		});
+	}
+
+	private Optional<NextSlotDTO> findEarliestSlot(DaySchedule daySchedule, VehicleTeams vehicles, int duration, int cleanerCount, int notBefore) {
+		int length = duration * 60;
+		int bestStart = Integer.MAX_VALUE;
+		List<CleanerSnapshot> bestGroup = null;
+		for (List<CleanerSnapshot> group : vehicles.groups()) {
+			boolean cannotImprove = bestGroup != null && bestStart <= notBefore && group.size() >= bestGroup.size();
+			if (group.size() < cleanerCount || cannotImprove) {
+				continue;
+			}
+			int start = earliestCommonStart(daySchedule, group, length, cleanerCount, notBefore);
+			if (start < bestStart || (start == bestStart && bestGroup != null && group.size() < bestGroup.size())) {
+				bestStart = start;
+				bestGroup = group;
+			}
+		}
+		if (bestGroup == null || bestStart == Integer.MAX_VALUE) {
+			return Optional.empty();
+		}
+		List<CleanerDTO> team = new ArrayList<>(cleanerCount);
+		for (CleanerSnapshot cleaner : bestGroup) {
+			if (team.size() < cleanerCount && daySchedule.getCleanerSchedule(cleaner.getCleanerId()).isFree(bestStart, bestStart + length, null)) {
+				team.add(CleanerDTO.builder().cleanerId(cleaner.getCleanerId()).cleanerName(cleaner.getCleanerName()).build());
+			}
+		}
+		return Optional.of(NextSlotDTO.builder()
+				.date(daySchedule.getDate())
+				.startTime(timeOf(bestStart))
+				.duration(duration)
+				.vehicleId(bestGroup.get(0).getVehicleId())
+				.cleaners(team)
+				.build());
+	}
+
+	// Sweeps the windows in which each cleaner could start: the earliest minute covered by cleanerCount of them.
+	// A cleaner's free gaps are disjoint, so every covering window belongs to a different cleaner.
+	private static int earliestCommonStart(DaySchedule daySchedule, List<CleanerSnapshot> group, int length, int cleanerCount, int notBefore) {
+		List<int[]> windows = new ArrayList<>();
+		for (CleanerSnapshot cleaner : group) {
+			for (int[] slot : daySchedule.getCleanerSchedule(cleaner.getCleanerId()).freeSlots()) {
+				int from = Math.max(slot[0], notBefore);
+				if (slot[1] - from >= length) {
+					// starts in [from, slot end - length], end kept exclusive
+					windows.add(new int[]{from, slot[1] - length + 1});
+				}
+			}
+		}
+		if (windows.size() < cleanerCount) {
+			return Integer.MAX_VALUE;
+		}
+		int[] starts = new int[windows.size()];
+		int[] ends = new int[windows.size()];
+		for (int i = 0; i < windows.size(); i++) {
+			starts[i] = windows.get(i)[0];
+			ends[i] = windows.get(i)[1];
+		}
+		Arrays.sort(starts);
+		Arrays.sort(ends);
+		// the earliest common start is always some window's start
+		int ended = 0;
+		for (int i = 0; i < starts.length; i++) {
+			if (i + 1 < starts.length && starts[i + 1] == starts[i]) {
+				continue;
+			}
+			while (ended < ends.length && ends[ended] <= starts[i]) {
+				ended++;
+			}
+			if (i + 1 - ended >= cleanerCount) {
+				return starts[i];
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private List<CleanerDTO> getAvailableCleanerDtos(List<CleanerSnapshot> cleaners, DaySchedule daySchedule, LocalTime startTime, Integer duration) {
+		LocalDate date = daySchedule.getDate();
+		boolean filterByTime = startTime != null && duration != null;
 		List<CleanerDTO> availableCleanerDtos = new ArrayList<>();
-		for (Cleaner cleaner : cleaners) {
-			List<Booking> bookings = bookingRepo.findByBookingDateAndCleanerId(date, cleaner.getCleanerId());
-			List<TimeslotDTO> cleanerBookingTimeSlots = getTimeslotsAgainstBookings(bookings);
-			List<TimeslotDTO> slotsAvailable = getAvailableSlots(date, bookings);
+		int slotCount = 0;
+		for (CleanerSnapshot cleaner : cleaners) {
+			CleanerSchedule schedule = daySchedule.getCleanerSchedule(cleaner.getCleanerId());
+			if (filterByTime && !schedule.isFree(minuteOf(startTime), minuteOf(startTime) + duration * 60, null)) {
+				continue;
+			}
+			List<TimeslotDTO> slotsAvailable = getAvailableSlots(date, schedule);
+			slotCount += slotsAvailable.size();
 			if (!slotsAvailable.isEmpty()) {
 				CleanerDTO availableCleaner = CleanerDTO.builder()
 						.cleanerId(cleaner.getCleanerId())
 						.cleanerName(cleaner.getCleanerName())
 						.slotsAvailable(slotsAvailable)
-						.bookings(cleanerBookingTimeSlots)
 						.build();
 				availableCleanerDtos.add(availableCleaner);
 			}
 		}
-		
-		if (startTime != null && duration != null) {
-			LocalDateTime bookingStart = LocalDateTime.of(date, startTime);
-			LocalDateTime bookingEnd = bookingStart.plusHours(duration);
-			availableCleanerDtos = filterCleanersByTimeSlot(availableCleanerDtos, bookingStart, bookingEnd);
-		}
+		bookingMetrics.recordAvailabilityComputed(cleaners.size(), slotCount);
 		return availableCleanerDtos;
 	}
-	
-	private List<CleanerDTO> filterCleanersByTimeSlot(List<CleanerDTO> availableCleanerDtos, LocalDateTime bookingStart, LocalDateTime bookingEnd) {
-		return availableCleanerDtos.stream().filter(cleaner -> isSlotAvailable(cleaner.getSlotsAvailable(), bookingStart, bookingEnd)).toList();
-	}
-	
-	private List<TimeslotDTO> getTimeslotsAgainstBookings(List<Booking> bookings) {
-		List<TimeslotDTO> timeSlots = new ArrayList<>();
-		for(Booking booking : bookings) {
-			LocalDateTime bookingStart = LocalDateTime.of(booking.getBookingDate(), booking.getBookingStartTime());
-			LocalDateTime bookingEnd = bookingStart.plusHours(booking.getBookingDuration());
-			timeSlots.add(TimeslotDTO.builder().from(bookingStart).to(bookingEnd).build());
-		}
-		return timeSlots;
+
+	// Same cleaners and slots as getAvailableCleanerDtos, computed one cleaner at a time as the stream is consumed.
+	// Validation and the roster and day snapshots happen up front, so errors surface before anything is written.
+	public Stream<CleanerSlotsDTO> streamAvailableCleaners(LocalDate date, LocalTime startTime, Integer duration) {
+		validateWorkingDay(date);
+		validateWorkingHours(date, startTime, duration);
+		List<CleanerSnapshot> cleaners = cleanerRoster.getCleaners();
+		DaySchedule daySchedule = scheduleIndex.getDay(date);
+		boolean filterByTime = startTime != null && duration != null;
+		int startMinute = filterByTime ? minuteOf(startTime) : 0;
+		int endMinute = filterByTime ? startMinute + duration * 60 : 0;
+		return cleaners.stream().<CleanerSlotsDTO>mapMulti((cleaner, out) -> {
+			CleanerSchedule schedule = daySchedule.getCleanerSchedule(cleaner.getCleanerId());
+			if (filterByTime && !schedule.isFree(startMinute, endMinute, null)) {
+				return;
+			}
+			List<int[]> slots = schedule.freeSlots();
+			if (!slots.isEmpty()) {
+				out.accept(new CleanerSlotsDTO(cleaner.getCleanerId(), cleaner.getCleanerName(), slots));
+			}
+		});
 	}
-	
-	public List<Cleaner> getAvailableCleaners(LocalDate date, LocalTime time, Integer duration) {
+
+	public List<CleanerSnapshot> getAvailableCleaners(LocalDate date, LocalTime time, Integer duration) {
 		validateWorkingDay(date);
 		validateWorkingHours(date, time, duration);
-		
-		return cleanerRepo.findAll().stream()
-				.filter(cleaner -> isCleanerAvailable(cleaner, date, time, duration))
+
+		DaySchedule daySchedule = scheduleIndex.getDay(date);
+		return cleanerRoster.getCleaners().stream()
+				.filter(cleaner -> isCleanerAvailable(daySchedule, cleaner, time, duration, null))
 				.collect(Collectors.toList());
 	}
-	
-	private boolean isCleanerAvailable(Cleaner cleaner, LocalDate date, LocalTime startTime, Integer duration) {
-		if (cleaner.getBookings() == null || cleaner.getBookings().isEmpty())
-			return true;
-		
-		LocalDateTime startTimeRequested = LocalDateTime.of(date, startTime);
-		LocalDateTime endTimeRequested = startTimeRequested.plusHours(duration);
-		
-		return cleaner.getBookings().stream().allMatch(booking -> {
-			LocalDateTime bookingStart = LocalDateTime.of(booking.getBookingDate(), booking.getBookingStartTime());
-			LocalDateTime bookingEnd = bookingStart.plusHours(booking.getBookingDuration());
-			boolean beforeCurrentBooking = bookingEnd.plusMinutes(BREAK_MINUTES).isBefore(startTimeRequested);
-			boolean afterCurrentBooking = bookingStart.isAfter(endTimeRequested.plusMinutes(BREAK_MINUTES));
-			return beforeCurrentBooking || afterCurrentBooking;
-		});
+
+	public List<CleanerSnapshot> getCleaners() {
+		return cleanerRoster.getCleaners();
 	}
-	
+
+	public VehicleTeams getAvailableTeams(LocalDate date, LocalTime time, Integer duration) {
+		validateWorkingDay(date);
+		validateWorkingHours(date, time, duration);
+
+		return filterAvailableTeams(cleanerRoster.getCleaners(), scheduleIndex.getDay(date), time, duration, null);
+	}
+
+	// Evaluates against a caller-held snapshot, e.g. a working copy during batch allocation. A reschedule passes
+	// the booking being moved as ignoredBookingId, so its own current slot does not keep its cleaners busy
+	public VehicleTeams filterAvailableTeams(List<CleanerSnapshot> cleaners, DaySchedule daySchedule, LocalTime time, Integer duration, Integer ignoredBookingId) {
+		VehicleTeams.Builder teams = VehicleTeams.builder();
+		for (CleanerSnapshot cleaner : cleaners) {
+			if (isCleanerAvailable(daySchedule, cleaner, time, duration, ignoredBookingId)) {
+				teams.add(cleaner);
+			}
+		}
+		return teams.build();
+	}
+
+	private boolean isCleanerAvailable(DaySchedule daySchedule, CleanerSnapshot cleaner, LocalTime startTime, Integer duration, Integer ignoredBookingId) {
+		int start = minuteOf(startTime);
+		return daySchedule.getCleanerSchedule(cleaner.getCleanerId()).isFree(start, start + duration * 60, ignoredBookingId);
+	}
+
+	// Works on a sorted copy; the caller's list is left as it was
 	public List<TimeslotDTO> getAvailableSlots(LocalDate workDay, List<Booking> bookings) {
+		return getAvailableSlots(workDay, CleanerSchedule.of(bookings));
+	}
+
+	private List<TimeslotDTO> getAvailableSlots(LocalDate workDay, CleanerSchedule schedule) {
 		List<TimeslotDTO> availableSlots = new ArrayList<>();
-		
-		// Define the start and end of the working hours for the day
-		LocalDateTime shiftStart = LocalDateTime.of(workDay, Util.cleanerShiftStart);
-		LocalDateTime shiftEnd = LocalDateTime.of(workDay, Util.cleanerShiftEnd);
-		
-		// Sort bookings by start time
-		bookings.sort(Comparator.comparing(Booking::getBookingStartTime));
-		
-		LocalDateTime currentSlotStart = shiftStart;
-		
-		for (Booking booking : bookings) {
-			
-			LocalDateTime bookingStart = LocalDateTime.of(workDay, booking.getBookingStartTime());
-			LocalDateTime bookingEnd = bookingStart.plusHours(booking.getBookingDuration());
-			
-			// Check if there is an available slot before the current booking
-			if (currentSlotStart.isBefore(bookingStart.minus(BREAK_DURATION))) {
-				availableSlots.add(new TimeslotDTO(currentSlotStart, bookingStart.minus(BREAK_DURATION)));
-			}
-			
-			// After the booking ends, the next available time is after a 30-minute break
-			currentSlotStart = bookingEnd.plus(BREAK_DURATION);
-		}
-		
-		// Check if there is any free slot after the last booking until the end of the shift
-		if (currentSlotStart.isBefore(shiftEnd)) {
-			availableSlots.add(new TimeslotDTO(currentSlotStart, shiftEnd));
+		for (int[] slot : schedule.freeSlots()) {
+			availableSlots.add(toTimeslot(workDay, slot[0], slot[1]));
 		}
 		return availableSlots;
 	}
-	
+
+	private TimeslotDTO toTimeslot(LocalDate date, int fromMinute, int toMinute) {
+		return new TimeslotDTO(LocalDateTime.of(date, timeOf(fromMinute)), LocalDateTime.of(date, timeOf(toMinute)));
+	}
+
 	public boolean isCleanerAvailableForUpdate(Cleaner cleaner, LocalDate date, LocalTime startTime, Integer duration, Booking currentBooking) {
-		List<Booking> bookings = bookingRepo.findByBookingDateAndCleanerId(date, cleaner.getCleanerId());
-		
-		if (bookings == null) {
-			bookings = new ArrayList<>();
-		}
-		
-		// Exclude the current booking
-		bookings = bookings.stream()
-				.filter(booking -> !booking.getBookingId().equals(currentBooking.getBookingId()))
-				.collect(Collectors.toList());
-		
-		List<TimeslotDTO> availableSlots = getAvailableSlots(date, bookings);
-		if (availableSlots.isEmpty()) {
-			return false;
-		}
-		LocalDateTime bookingStart = LocalDateTime.of(date, startTime);
-		LocalDateTime bookingEnd = bookingStart.plusHours(duration);
-		return isSlotAvailable(availableSlots, bookingStart, bookingEnd);
+		int start = minuteOf(startTime);
+		return scheduleIndex.getCleanerSchedule(date, cleaner.getCleanerId())
+				.isFree(start, start + duration * 60, currentBooking.getBookingId());
 	}
-	
+
+	// Slots are sorted and disjoint, as getAvailableSlots returns them, so only the last slot starting
+	// at or before the booking can contain it
 	public boolean isSlotAvailable(List<TimeslotDTO> availableSlots, LocalDateTime bookingStartTime, LocalDateTime bookingEndTime) {
-		for (TimeslotDTO slot : availableSlots) {
-			boolean beforeSlotEnds = bookingEndTime.isBefore(slot.getTo()) || bookingEndTime.equals(slot.getTo());
-			boolean afterSlotBegins = bookingStartTime.isAfter(slot.getFrom()) || bookingStartTime.equals(slot.getFrom());
-			if (afterSlotBegins && beforeSlotEnds) {
-				return true;
+		int low = 0;
+		int high = availableSlots.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (availableSlots.get(mid).getFrom().isAfter(bookingStartTime)) {
+				high = mid;
+			} else {
+				low = mid + 1;
 			}
 		}
-		return false;
+		return low > 0 && !bookingEndTime.isAfter(availableSlots.get(low - 1).getTo());
 	}
 }
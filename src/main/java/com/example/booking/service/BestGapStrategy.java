@@ -0,0 +1,32 @@
+package com.example.booking.service;
+
+/**
+ * Prefers cleaners whose free gap the booking fills most tightly. Leftover pieces too short for the
+ * shortest bookable duration are stranded for the rest of the day and weigh far more than usable ones.
+ */
+public class BestGapStrategy extends ScoredAllocationStrategy {
+
+	// bookings last two or four hours, see BookingDTO
+	static final int MIN_BOOKING_MINUTES = 120;
+	private static final long STRANDED_WEIGHT = 1_000;
+
+	@Override
+	public String name() {
+		return "best-gap";
+	}
+
+	@Override
+	protected long cost(CleanerSchedule schedule, int startMinute, int endMinute) {
+		if (!schedule.isFree(startMinute, endMinute, null)) {
+			// teams only hold free cleaners, so this is never the cheapest
+			return Long.MAX_VALUE / 4;
+		}
+		int before = startMinute - CleanerSchedule.BREAK_MINUTES - schedule.gapStart(startMinute);
+		int after = schedule.gapEnd(endMinute) - endMinute - CleanerSchedule.BREAK_MINUTES;
+		return STRANDED_WEIGHT * (stranded(before) + stranded(after)) + Math.max(before, 0) + Math.max(after, 0);
+	}
+
+	private static int stranded(int minutes) {
+		return minutes > 0 && minutes < MIN_BOOKING_MINUTES ? minutes : 0;
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.booking.service;
+
+import com.example.booking.model.BookingEventDTO;
+
+/**
+ * In-process subscriber to the booking change feed. OutboxPoller calls every listener bean on its own
+ * thread, at least once per event; a listener that throws is logged and does not hold up the others.
+ */
+public interface BookingEventListener {
+
+	void onBookingEvent(BookingEventDTO event);
+}
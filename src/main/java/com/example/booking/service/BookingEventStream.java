@@ -0,0 +1,173 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import com.example.booking.repo.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event feed of booking changes behind /api/bookings/events. Each event carries its outbox id,
+ * so a client reconnecting with Last-Event-ID is first replayed everything it missed, page by page; live
+ * events arriving meanwhile are queued behind the replay. The two can overlap, and clients drop ids they
+ * have already seen.
+ * <p>
+ * Replay and live events are written on eventStreamExecutor, so neither the request thread nor the outbox
+ * poller handing events over waits on a client. A subscriber falling booking.events.buffer-size live events
+ * behind is disconnected and catches up through the replay when it reconnects.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingEventStream implements BookingEventListener {
+
+	private final OutboxEventRepository outboxRepo;
+	private final BookingOutbox bookingOutbox;
+	private final Executor eventStreamExecutor;
+	private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+	@Value("${booking.events.sse-timeout:PT30M}")
+	private Duration timeout = Duration.ofMinutes(30);
+	@Value("${booking.events.replay-page-size:1000}")
+	private int replayPageSize = 1000;
+	@Value("${booking.events.buffer-size:256}")
+	private int bufferSize = 256;
+
+	public SseEmitter subscribe(Long lastEventId) {
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		emitter.onCompletion(() -> subscribers.remove(emitter));
+		emitter.onTimeout(() -> subscribers.remove(emitter));
+		emitter.onError(e -> subscribers.remove(emitter));
+		// registered before the replay query, so nothing committed in between is missed
+		Subscriber subscriber = new Subscriber(emitter);
+		subscribers.put(emitter, subscriber);
+		if (lastEventId != null) {
+			subscriber.replayFrom(lastEventId);
+		}
+		return emitter;
+	}
+
+	@Override
+	public void onBookingEvent(BookingEventDTO event) {
+		subscribers.values().forEach(subscriber -> subscriber.enqueue(event));
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	// Returns false once the subscriber has been dropped
+	private boolean send(SseEmitter emitter, BookingEventDTO event) {
+		try {
+			emitter.send(SseEmitter.event()
+					.id(String.valueOf(event.getEventId()))
+					.name(event.getType().name())
+					.data(event, MediaType.APPLICATION_JSON));
+			return true;
+		} catch (IOException | IllegalStateException e) {
+			drop(emitter, e);
+			return false;
+		}
+	}
+
+	private void drop(SseEmitter emitter, Exception cause) {
+		log.debug("Dropping booking event subscriber: {}", cause.getMessage());
+		subscribers.remove(emitter);
+		emitter.completeWithError(cause);
+	}
+
+	// Pending live events of one client, written in order by at most one executor thread at a time
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final BlockingQueue<BookingEventDTO> pending;
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+			this.pending = new ArrayBlockingQueue<>(bufferSize);
+		}
+
+		private void enqueue(BookingEventDTO event) {
+			if (!pending.offer(event)) {
+				drop(emitter, new IllegalStateException("Subscriber fell " + bufferSize + " events behind"));
+				return;
+			}
+			scheduleDrain();
+		}
+
+		// Holds live events back until everything after lastEventId has been sent
+		private void replayFrom(long lastEventId) {
+			draining.set(true);
+			try {
+				eventStreamExecutor.execute(() -> {
+					if (replay(lastEventId)) {
+						drain();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				draining.set(false);
+				drop(emitter, e);
+			}
+		}
+
+		// Pages through the outbox until a page comes back short, that is until replay reached the live events
+		private boolean replay(long lastEventId) {
+			long cursor = lastEventId;
+			List<OutboxEvent> page;
+			do {
+				page = outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(cursor, Limit.of(replayPageSize));
+				for (OutboxEvent outboxEvent : page) {
+					if (!send(emitter, bookingOutbox.decode(outboxEvent))) {
+						pending.clear();
+						return false;
+					}
+					cursor = outboxEvent.getOutboxId();
+				}
+			} while (page.size() == replayPageSize);
+			return true;
+		}
+
+		private void scheduleDrain() {
+			if (!draining.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				eventStreamExecutor.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				draining.set(false);
+				drop(emitter, e);
+			}
+		}
+
+		private void drain() {
+			for (BookingEventDTO event = pending.poll(); event != null; event = pending.poll()) {
+				if (!send(emitter, event)) {
+					pending.clear();
+					return;
+				}
+			}
+			draining.set(false);
+			// an event queued after the last poll but before the flag was cleared found a drain still running
+			if (!pending.isEmpty()) {
+				scheduleDrain();
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-process locks over (cleaner, date). Allocations touching different cleaner-days
+ * proceed in parallel; the database occupancy guard covers other application instances.
+ */
+@Component
+public class BookingLocks {
+
+	private final ReentrantLock[] stripes;
+
+	public BookingLocks(@Value("${booking.allocation.lock-stripes:256}") int stripeCount) {
+		stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	public Handle lock(LocalDate date, Collection<Integer> cleanerIds) {
+		return lock(Map.of(date, cleanerIds));
+	}
+
+	// Stripes are taken in index order so overlapping allocations cannot deadlock
+	public Handle lock(Map<LocalDate, ? extends Collection<Integer>> cleanerIdsByDate) {
+		TreeSet<Integer> stripeIndexes = new TreeSet<>();
+		cleanerIdsByDate.forEach((date, cleanerIds) -> {
+			for (Integer cleanerId : cleanerIds) {
+				stripeIndexes.add(stripeIndex(date, cleanerId));
+			}
+		});
+		int[] acquired = new int[stripeIndexes.size()];
+		int count = 0;
+		for (Integer index : stripeIndexes) {
+			stripes[index].lock();
+			acquired[count++] = index;
+		}
+		return new Handle(acquired);
+	}
+
+	private int stripeIndex(LocalDate date, Integer cleanerId) {
+		int hash = 31 * date.hashCode() + cleanerId;
+		return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+	}
+
+	public final class Handle implements AutoCloseable {
+
+		private final int[] acquired;
+
+		private Handle(int[] acquired) {
+			this.acquired = acquired;
+		}
+
+		@Override
+		public void close() {
+			for (int i = acquired.length - 1; i >= 0; i--) {
+				stripes[acquired[i]].unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import com.example.booking.repo.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes booking change events into the booking_outbox table inside the caller's transaction, so an event
+ * exists exactly when its booking change committed. OutboxPoller delivers them afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+
+	private final OutboxEventRepository outboxRepo;
+	private final ObjectMapper objectMapper;
+	private final String instanceId = UUID.randomUUID().toString();
+
+	public void bookingCreated(Booking booking) {
+		append(eventOf(BookingEventDTO.Type.BOOKING_CREATED, booking).build());
+	}
+
+	public void bookingRescheduled(Booking booking, LocalDate previousDate) {
+		append(eventOf(BookingEventDTO.Type.BOOKING_RESCHEDULED, booking)
+				.previousBookingDate(previousDate)
+				.build());
+	}
+
+	public void cleanersReassigned(Booking booking, List<Integer> previousCleanerIds) {
+		append(eventOf(BookingEventDTO.Type.CLEANERS_REASSIGNED, booking)
+				.previousCleanerIds(previousCleanerIds)
+				.build());
+	}
+
+	public void seriesCreated(BookingSeries series, List<Integer> cleanerIds) {
+		append(BookingEventDTO.builder()
+				.type(BookingEventDTO.Type.SERIES_CREATED)
+				.seriesId(series.getSeriesId())
+				.bookingDate(series.getFirstDate())
+				.bookingStartTime(series.getBookingStartTime())
+				.bookingDuration(series.getBookingDuration())
+				.cleanerIds(cleanerIds)
+				.occurredAt(LocalDateTime.now())
+				.build());
+	}
+
+	// An occurrence of the series left unwritten because its cleaners were booked over it in the meantime
+	public void occurrenceSkipped(BookingSeries series, LocalDate date, List<Integer> cleanerIds) {
+		append(BookingEventDTO.builder()
+				.type(BookingEventDTO.Type.OCCURRENCE_SKIPPED)
+				.seriesId(series.getSeriesId())
+				.bookingDate(date)
+				.bookingStartTime(series.getBookingStartTime())
+				.bookingDuration(series.getBookingDuration())
+				.cleanerIds(cleanerIds)
+				.occurredAt(LocalDateTime.now())
+				.build());
+	}
+
+	public BookingEventDTO decode(OutboxEvent outboxEvent) {
+		try {
+			BookingEventDTO event = objectMapper.readValue(outboxEvent.getPayload(), BookingEventDTO.class);
+			event.setEventId(outboxEvent.getOutboxId());
+			event.setOrigin(outboxEvent.getOrigin());
+			return event;
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unreadable outbox event " + outboxEvent.getOutboxId(), e);
+		}
+	}
+
+	public boolean isLocal(BookingEventDTO event) {
+		return instanceId.equals(event.getOrigin());
+	}
+
+	private void append(BookingEventDTO event) {
+		try {
+			outboxRepo.save(OutboxEvent.builder()
+					.eventType(event.getType())
+					.bookingId(event.getBookingId())
+					.origin(instanceId)
+					.payload(objectMapper.writeValueAsString(event))
+					.occurredAt(event.getOccurredAt())
+					.build());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Booking event " + event.getType() + " of " + event.getBookingId() + " is not serializable", e);
+		}
+	}
+
+	private static BookingEventDTO.BookingEventDTOBuilder eventOf(BookingEventDTO.Type type, Booking booking) {
+		return BookingEventDTO.builder()
+				.type(type)
+				.bookingId(booking.getBookingId())
+				.seriesId(booking.getSeriesId())
+				.bookingDate(booking.getBookingDate())
+				.bookingStartTime(booking.getBookingStartTime())
+				.bookingDuration(booking.getBookingDuration())
+				.cleanerIds(booking.getCleaners().stream().map(Cleaner::getCleanerId).toList())
+				.occurredAt(LocalDateTime.now());
+	}
+}
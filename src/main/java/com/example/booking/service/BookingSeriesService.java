@@ -0,0 +1,232 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.exception.AllocationConflictException;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.BookingSeriesDTO;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import com.example.booking.repo.CleanerRepository;
+import com.example.booking.util.Util;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates recurring bookings. A series is planned against every one of its occurrences, but only those
+ * inside the rolling horizon are claimed and written as bookings straight away; the rest stay a rule,
+ * overlaid on availability by SeriesCalendar until SeriesMaterializer reaches them.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookingSeriesService {
+
+	private final BookingSeriesRepository seriesRepo;
+	private final BookingRepository bookingRepo;
+	private final CleanerRepository cleanerRepo;
+	private final AvailabilityService availabilityService;
+	private final AllocationStrategy allocationStrategy;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final SeriesCalendar seriesCalendar;
+	private final SeriesMaterializer seriesMaterializer;
+	private final BookingLocks bookingLocks;
+	private final CleanerDayGuard cleanerDayGuard;
+	private final BookingOutbox bookingOutbox;
+	private final TransactionTemplate transactionTemplate;
+	private final BookingMetrics bookingMetrics;
+
+	@Value("${booking.allocation.max-attempts:3}")
+	private int maxAllocationAttempts = 3;
+	@Value("${booking.series.max-occurrences:104}")
+	private int maxOccurrences = 104;
+
+	public BookingSeriesDTO createSeries(BookingSeriesDTO seriesDTO) {
+		log.info("Creating new booking series {}", seriesDTO);
+		return bookingMetrics.time(BookingMetrics.CREATE_SERIES, () -> allocateSeries(seriesDTO));
+	}
+
+	private BookingSeriesDTO allocateSeries(BookingSeriesDTO seriesDTO) {
+		LocalDate firstDate = seriesDTO.getDayOfWeek() == null ? seriesDTO.getStartDate()
+				: seriesDTO.getStartDate().with(TemporalAdjusters.nextOrSame(seriesDTO.getDayOfWeek()));
+		LocalTime bookingStartTime = seriesDTO.getBookingStartTime();
+		int bookingDuration = seriesDTO.getBookingDuration();
+
+		Util.validateWorkingDay(firstDate);
+		Util.validateWorkingHours(firstDate, bookingStartTime, bookingDuration);
+		if (firstDate.isBefore(LocalDate.now())) {
+			throw new ValidationException("A series cannot start in the past");
+		}
+		List<LocalDate> dates = SeriesOccurrences.dates(firstDate, seriesDTO.getIntervalWeeks(), seriesDTO.getOccurrences(),
+				seriesDTO.getUntilDate(), maxOccurrences + 1);
+		if (dates.isEmpty()) {
+			throw new ValidationException("The series has no occurrences");
+		}
+		if (dates.size() > maxOccurrences) {
+			throw new ValidationException("A series may have at most " + maxOccurrences + " occurrences");
+		}
+
+		int startMinute = CleanerSchedule.minuteOf(bookingStartTime);
+		int endMinute = startMinute + bookingDuration * 60;
+		List<CleanerSnapshot> cleaners = availabilityService.getCleaners();
+		for (int attempt = 1; ; attempt++) {
+			// one query over the occurrence dates only, not the weeks between them; days already carry the
+			// pending occurrences of other series
+			Map<LocalDate, DaySchedule> occurrenceDays = scheduleIndex.getDays(dates);
+			List<DaySchedule> days = dates.stream().map(occurrenceDays::get).toList();
+			List<CleanerSnapshot> team = allocationStrategy.select(freeOnEveryDay(cleaners, days, startMinute, endMinute), days.get(0),
+					startMinute, endMinute, seriesDTO.getCleanerCount());
+			if (team.isEmpty()) {
+				bookingMetrics.recordAllocationFailure(BookingMetrics.NOT_ENOUGH_CLEANERS);
+				throw new ValidationException("Not enough cleaners available for every occurrence of the series");
+			}
+
+			Map<LocalDate, List<Integer>> lockedCleaners = new TreeMap<>();
+			dates.forEach(date -> lockedCleaners.put(date, cleanerIdsOf(team)));
+			BookingSeries series;
+			try (BookingLocks.Handle ignored = bookingMetrics.timeLockWait(() -> bookingLocks.lock(lockedCleaners))) {
+				series = transactionTemplate.execute(status -> persistSeries(seriesDTO, dates, team));
+			} catch (AllocationConflictException | OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Series allocation attempt {} from {} lost a race: {}", attempt, firstDate, e.getMessage());
+				bookingMetrics.recordAllocationFailure(BookingMetrics.CONCURRENT_CONFLICT);
+				dates.forEach(scheduleIndex::evict);
+				if (attempt >= maxAllocationAttempts) {
+					bookingMetrics.recordAllocationFailure(BookingMetrics.RETRIES_EXHAUSTED);
+					throw new ValidationException("Requested cleaners were booked concurrently, please retry");
+				}
+				continue;
+			}
+			return buildSeriesResponse(series, dates, team);
+		}
+	}
+
+	private BookingSeries persistSeries(BookingSeriesDTO seriesDTO, List<LocalDate> dates, List<CleanerSnapshot> team) {
+		int startMinute = CleanerSchedule.minuteOf(seriesDTO.getBookingStartTime());
+		int endMinute = startMinute + seriesDTO.getBookingDuration() * 60;
+		List<Integer> cleanerIds = cleanerIdsOf(team);
+		LocalDate horizonEnd = seriesMaterializer.horizonEnd();
+		LocalDate lastDate = dates.get(dates.size() - 1);
+
+		// occurrences inside the horizon become bookings now, so they take the same claim as any booking
+		List<LocalDate> dueDates = dates.stream().filter(date -> !date.isAfter(horizonEnd)).toList();
+		for (LocalDate date : dueDates) {
+			cleanerDayGuard.claim(date, cleanerIds, startMinute, endMinute, null);
+		}
+		// later ones are re-checked against committed bookings, all in one query
+		if (lastDate.isAfter(horizonEnd)) {
+			Set<LocalDate> laterDates = new HashSet<>(dates.subList(dueDates.size(), dates.size()));
+			Map<LocalDate, List<CleanerBookingSlot>> slotsByDate = new HashMap<>();
+			for (CleanerBookingSlot slot : bookingRepo.findSlotsByBookingDateBetweenAndCleanerIds(horizonEnd.plusDays(1), lastDate, cleanerIds)) {
+				if (laterDates.contains(slot.getBookingDate())) {
+					slotsByDate.computeIfAbsent(slot.getBookingDate(), date -> new ArrayList<>()).add(slot);
+				}
+			}
+			for (LocalDate date : laterDates) {
+				Map<Integer, CleanerSchedule> schedules = new HashMap<>(CleanerSchedule.ofSlots(slotsByDate.getOrDefault(date, List.of())));
+				// and against the pending occurrences of other series; this one is not in the calendar until commit
+				seriesCalendar.overlay(date, schedules, cleanerIds);
+				schedules.forEach((cleanerId, schedule) -> {
+					if (!schedule.isFree(startMinute, endMinute, null)) {
+						throw new AllocationConflictException("Cleaner " + cleanerId + " was booked concurrently on " + date);
+					}
+				});
+			}
+		}
+
+		BookingSeries series = seriesRepo.save(BookingSeries.builder()
+				.firstDate(dates.get(0))
+				.lastDate(lastDate)
+				.intervalWeeks(seriesDTO.getIntervalWeeks())
+				.occurrenceCount(seriesDTO.getOccurrences())
+				.untilDate(seriesDTO.getUntilDate())
+				.bookingStartTime(seriesDTO.getBookingStartTime())
+				.bookingDuration(seriesDTO.getBookingDuration())
+				.materializedThrough(dates.get(0).minusDays(1))
+				.cleaners(referencesOf(team))
+				.build());
+		bookingOutbox.seriesCreated(series, cleanerIds);
+		seriesMaterializer.writeOccurrences(series, dueDates, horizonEnd);
+		// dropped on commit while the locks are still held: occurrences past the horizon are only guarded by the
+		// calendar, so a booking waiting on those locks must already see the series
+		afterCommit(() -> {
+			// the calendar first, so the days reloaded next overlay the new series
+			seriesCalendar.invalidate();
+			for (LocalDate date : dates) {
+				scheduleIndex.evict(date);
+				availabilityCache.evict(date);
+			}
+		});
+		return series;
+	}
+
+	private static VehicleTeams freeOnEveryDay(List<CleanerSnapshot> cleaners, List<DaySchedule> days, int startMinute, int endMinute) {
+		VehicleTeams.Builder teams = VehicleTeams.builder();
+		for (CleanerSnapshot cleaner : cleaners) {
+			if (days.stream().allMatch(day -> day.getCleanerSchedule(cleaner.getCleanerId()).isFree(startMinute, endMinute, null))) {
+				teams.add(cleaner);
+			}
+		}
+		return teams.build();
+	}
+
+	private BookingSeriesDTO buildSeriesResponse(BookingSeries series, List<LocalDate> dates, List<CleanerSnapshot> team) {
+		List<CleanerDTO> cleanerDtos = team.stream()
+				.map(cleaner -> CleanerDTO.builder()
+						.cleanerId(cleaner.getCleanerId())
+						.cleanerName(cleaner.getCleanerName())
+						.build())
+				.collect(Collectors.toList());
+		return BookingSeriesDTO.builder()
+				.seriesId(series.getSeriesId())
+				.startDate(series.getFirstDate())
+				.intervalWeeks(series.getIntervalWeeks())
+				.occurrences(series.getOccurrenceCount())
+				.untilDate(series.getUntilDate())
+				.bookingStartTime(series.getBookingStartTime())
+				.bookingDuration(series.getBookingDuration())
+				.cleanerCount(cleanerDtos.size())
+				.cleaners(cleanerDtos)
+				.occurrenceDates(dates)
+				.build();
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private static List<Integer> cleanerIdsOf(List<CleanerSnapshot> cleaners) {
+		return cleaners.stream().map(CleanerSnapshot::getCleanerId).toList();
+	}
+
+	// Only the ids are written to the join tables, so uninitialized references are enough
+	private List<Cleaner> referencesOf(List<CleanerSnapshot> team) {
+		return team.stream().map(cleaner -> cleanerRepo.getReferenceById(cleaner.getCleanerId())).collect(Collectors.toList());
+	}
+}
@@ -2,14 +2,28 @@ package com.example.booking.service;
 
 import com.example.booking.entity.Booking;
 import com.example.booking.entity.Cleaner;
+import com.example.booking.exception.AllocationConflictException;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.BatchBookingResultDTO;
 import com.example.booking.model.BookingDTO;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSnapshot;
 import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerRepository;
 import com.example.booking.util.Util;
+import com.example.booking.validation.CreateValidationGroup;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -22,10 +36,29 @@ import java.util.stream.Collectors;
 public class BookingService {
 
 	private final BookingRepository bookingRepo;
+	private final CleanerRepository cleanerRepo;
 	private final AvailabilityService availabilityService;
+	private final AllocationStrategy allocationStrategy;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final BookingLocks bookingLocks;
+	private final CleanerDayGuard cleanerDayGuard;
+	private final BookingOutbox bookingOutbox;
+	private final TransactionTemplate transactionTemplate;
+	private final Validator validator;
+	private final BookingMetrics bookingMetrics;
+	
+	@Value("${booking.allocation.max-attempts:3}")
+	private int maxAllocationAttempts = 3;
+	@Value("${booking.batch.max-size:500}")
+	private int maxBatchSize = 500;
 	
 	public BookingDTO createBooking(BookingDTO bookingDTO) {
 		log.info("Creating new booking {}", bookingDTO);
+		return bookingMetrics.time(BookingMetrics.CREATE, () -> allocateBooking(bookingDTO));
+	}
+	
+	private BookingDTO allocateBooking(BookingDTO bookingDTO) {
 		LocalDate bookingDate = bookingDTO.getBookingDate();
 		LocalTime bookingStartTime = bookingDTO.getBookingStartTime();
 		int bookingDuration = bookingDTO.getBookingDuration();
@@ -33,30 +66,202 @@ public class BookingService {
 		Util.validateWorkingDay(bookingDate);
 		Util.validateWorkingHours(bookingDate, bookingStartTime, bookingDuration);
 		
-		List<Cleaner> availableCleaners = availabilityService.getAvailableCleaners(bookingDate, bookingStartTime, bookingDuration);
-		if (availableCleaners == null || availableCleaners.isEmpty()) {
-			throw new ValidationException("No cleaners available for requested time");
-		}
-		availableCleaners = getCleanersByVehicleAndCount(availableCleaners, bookingDTO.getCleanerCount()).stream()
-				.limit(bookingDTO.getCleanerCount()).toList();
-		
-		if (bookingDTO.getCleanerCount() != availableCleaners.size()) {
-			throw new ValidationException("Not enough cleaners available for requested time");
+		for (int attempt = 1; ; attempt++) {
+			VehicleTeams availableTeams = availabilityService.getAvailableTeams(bookingDate, bookingStartTime, bookingDuration);
+			if (availableTeams == null || availableTeams.isEmpty()) {
+				bookingMetrics.recordAllocationFailure(BookingMetrics.NO_CLEANERS);
+				throw new ValidationException("No cleaners available for requested time");
+			}
+			int startMinute = CleanerSchedule.minuteOf(bookingStartTime);
+			List<CleanerSnapshot> selectedCleaners = allocationStrategy.select(availableTeams, scheduleIndex.getDay(bookingDate),
+					startMinute, startMinute + bookingDuration * 60, bookingDTO.getCleanerCount());
+			if (selectedCleaners.isEmpty()) {
+				bookingMetrics.recordAllocationFailure(BookingMetrics.NOT_ENOUGH_CLEANERS);
+				throw new ValidationException("Not enough cleaners available for requested time");
+			}
+			
+			try (BookingLocks.Handle ignored = bookingMetrics.timeLockWait(() -> bookingLocks.lock(bookingDate, cleanerIdsOf(selectedCleaners)))) {
+				return transactionTemplate.execute(status -> persistNewBooking(bookingDate, bookingStartTime, bookingDuration, selectedCleaners));
+			} catch (AllocationConflictException | OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Allocation attempt {} for {} lost a race: {}", attempt, bookingDate, e.getMessage());
+				bookingMetrics.recordAllocationFailure(BookingMetrics.CONCURRENT_CONFLICT);
+				scheduleIndex.evict(bookingDate);
+				if (attempt >= maxAllocationAttempts) {
+					bookingMetrics.recordAllocationFailure(BookingMetrics.RETRIES_EXHAUSTED);
+					throw new ValidationException("Requested cleaners were booked concurrently, please retry");
+				}
+			}
 		}
+	}
+	
+	private BookingDTO persistNewBooking(LocalDate bookingDate, LocalTime bookingStartTime, int bookingDuration, List<CleanerSnapshot> team) {
+		int startMinute = CleanerSchedule.minuteOf(bookingStartTime);
+		cleanerDayGuard.claim(bookingDate, cleanerIdsOf(team), startMinute, startMinute + bookingDuration * 60, null);
 		
+		List<Cleaner> cleaners = referencesOf(team);
 		Booking createdBooking = bookingRepo.save(Booking.builder()
 				.bookingDate(bookingDate)
 				.bookingStartTime(bookingStartTime)
 				.bookingDuration(bookingDuration)
-				.cleaners(availableCleaners)
+				.cleaners(cleaners)
 				.build());
 		
-		createdBooking.setCleaners(availableCleaners);
-		return buildBookingResponse(createdBooking);
+		createdBooking.setCleaners(cleaners);
+		cleanerDayGuard.recordBookings(bookingDate, List.of(createdBooking));
+		bookingOutbox.bookingCreated(createdBooking);
+		scheduleIndex.recordBooking(createdBooking);
+		availabilityCache.evict(bookingDate);
+		return buildBookingResponse(createdBooking, team);
+	}
+	
+	public List<BatchBookingResultDTO> createBookings(List<BookingDTO> bookingDTOs) {
+		log.info("Creating batch of {} bookings", bookingDTOs.size());
+		return bookingMetrics.time(BookingMetrics.CREATE_BATCH, () -> allocateBookings(bookingDTOs));
+	}
+	
+	private List<BatchBookingResultDTO> allocateBookings(List<BookingDTO> bookingDTOs) {
+		if (bookingDTOs.size() > maxBatchSize) {
+			throw new ValidationException("A batch may contain at most " + maxBatchSize + " bookings");
+		}
+		
+		BatchBookingResultDTO[] results = new BatchBookingResultDTO[bookingDTOs.size()];
+		Map<LocalDate, List<Integer>> pendingByDate = new TreeMap<>();
+		for (int index = 0; index < bookingDTOs.size(); index++) {
+			String error = validateBatchItem(bookingDTOs.get(index));
+			if (error != null) {
+				bookingMetrics.recordAllocationFailure(BookingMetrics.INVALID_REQUEST);
+				results[index] = rejected(index, error);
+			} else {
+				pendingByDate.computeIfAbsent(bookingDTOs.get(index).getBookingDate(), date -> new ArrayList<>()).add(index);
+			}
+		}
+		if (!pendingByDate.isEmpty()) {
+			allocateBatch(bookingDTOs, pendingByDate, results);
+		}
+		return Arrays.asList(results);
+	}
+	
+	private String validateBatchItem(BookingDTO bookingDTO) {
+		Set<ConstraintViolation<BookingDTO>> violations = validator.validate(bookingDTO, CreateValidationGroup.class);
+		if (!violations.isEmpty()) {
+			return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+		}
+		try {
+			Util.validateWorkingDay(bookingDTO.getBookingDate());
+			Util.validateWorkingHours(bookingDTO.getBookingDate(), bookingDTO.getBookingStartTime(), bookingDTO.getBookingDuration());
+		} catch (ValidationException e) {
+			return e.getMessage();
+		}
+		return null;
+	}
+	
+	// Allocates every pending item against an in-memory working copy of its day, then persists them in one transaction
+	private void allocateBatch(List<BookingDTO> bookingDTOs, Map<LocalDate, List<Integer>> pendingByDate, BatchBookingResultDTO[] results) {
+		List<CleanerSnapshot> cleaners = availabilityService.getCleaners();
+		for (int attempt = 1; ; attempt++) {
+			Map<Integer, List<CleanerSnapshot>> teams = new TreeMap<>();
+			Map<LocalDate, Set<Integer>> claimedCleaners = new TreeMap<>();
+			for (Map.Entry<LocalDate, List<Integer>> entry : pendingByDate.entrySet()) {
+				DaySchedule workingDay = scheduleIndex.getDay(entry.getKey());
+				for (Integer index : entry.getValue()) {
+					BookingDTO bookingDTO = bookingDTOs.get(index);
+					int startMinute = CleanerSchedule.minuteOf(bookingDTO.getBookingStartTime());
+					int endMinute = startMinute + bookingDTO.getBookingDuration() * 60;
+					VehicleTeams freeTeams = availabilityService.filterAvailableTeams(cleaners, workingDay,
+							bookingDTO.getBookingStartTime(), bookingDTO.getBookingDuration(), null);
+					List<CleanerSnapshot> team = allocationStrategy.select(freeTeams, workingDay, startMinute, endMinute, bookingDTO.getCleanerCount());
+					if (team.isEmpty()) {
+						bookingMetrics.recordAllocationFailure(BookingMetrics.NOT_ENOUGH_CLEANERS);
+						results[index] = rejected(index, "Not enough cleaners available for requested time");
+						continue;
+					}
+					teams.put(index, team);
+					// placeholder ids keep batch items apart until the real ids exist
+					workingDay = workingDay.withBooking(new BusyInterval(-1 - index, startMinute, endMinute), cleanerIdsOf(team));
+					claimedCleaners.computeIfAbsent(entry.getKey(), date -> new TreeSet<>()).addAll(cleanerIdsOf(team));
+				}
+			}
+			if (teams.isEmpty()) {
+				return;
+			}
+			
+			try (BookingLocks.Handle ignored = bookingMetrics.timeLockWait(() -> bookingLocks.lock(claimedCleaners))) {
+				Map<Integer, Booking> createdBookings = transactionTemplate.execute(status -> persistBatch(bookingDTOs, teams, claimedCleaners));
+				createdBookings.forEach((index, booking) -> results[index] = BatchBookingResultDTO.builder()
+						.index(index)
+						.status(BatchBookingResultDTO.Status.CREATED)
+						.booking(buildBookingResponse(booking, teams.get(index)))
+						.build());
+				return;
+			} catch (AllocationConflictException | OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Batch allocation attempt {} lost a race: {}", attempt, e.getMessage());
+				bookingMetrics.recordAllocationFailure(BookingMetrics.CONCURRENT_CONFLICT);
+				claimedCleaners.keySet().forEach(scheduleIndex::evict);
+				if (attempt >= maxAllocationAttempts) {
+					bookingMetrics.recordAllocationFailure(BookingMetrics.RETRIES_EXHAUSTED);
+					teams.keySet().forEach(index -> results[index] = rejected(index, "Requested cleaners were booked concurrently, please retry"));
+					return;
+				}
+			}
+		}
+	}
+	
+	private Map<Integer, Booking> persistBatch(List<BookingDTO> bookingDTOs, Map<Integer, List<CleanerSnapshot>> teams, Map<LocalDate, Set<Integer>> claimedCleaners) {
+		Map<LocalDate, Map<Integer, CleanerSchedule>> committedSchedules = new HashMap<>();
+		claimedCleaners.forEach((date, cleanerIds) -> committedSchedules.put(date, cleanerDayGuard.claim(date, cleanerIds)));
+		
+		List<Integer> indexes = new ArrayList<>(teams.keySet());
+		List<Booking> bookings = new ArrayList<>(indexes.size());
+		for (Integer index : indexes) {
+			BookingDTO bookingDTO = bookingDTOs.get(index);
+			int startMinute = CleanerSchedule.minuteOf(bookingDTO.getBookingStartTime());
+			int endMinute = startMinute + bookingDTO.getBookingDuration() * 60;
+			Map<Integer, CleanerSchedule> committed = committedSchedules.get(bookingDTO.getBookingDate());
+			for (CleanerSnapshot cleaner : teams.get(index)) {
+				if (!committed.getOrDefault(cleaner.getCleanerId(), CleanerSchedule.EMPTY).isFree(startMinute, endMinute, null)) {
+					throw new AllocationConflictException("Cleaner " + cleaner.getCleanerId() + " was booked concurrently on " + bookingDTO.getBookingDate());
+				}
+			}
+			bookings.add(Booking.builder()
+					.bookingDate(bookingDTO.getBookingDate())
+					.bookingStartTime(bookingDTO.getBookingStartTime())
+					.bookingDuration(bookingDTO.getBookingDuration())
+					.cleaners(referencesOf(teams.get(index)))
+					.build());
+		}
+		
+		List<Booking> savedBookings = bookingRepo.saveAll(bookings);
+		Map<Integer, Booking> createdBookings = new HashMap<>();
+		for (int i = 0; i < indexes.size(); i++) {
+			Booking booking = savedBookings.get(i);
+			booking.setCleaners(bookings.get(i).getCleaners());
+			bookingOutbox.bookingCreated(booking);
+			scheduleIndex.recordBooking(booking);
+			createdBookings.put(indexes.get(i), booking);
+		}
+		createdBookings.values().stream()
+				.collect(Collectors.groupingBy(Booking::getBookingDate))
+				.forEach(cleanerDayGuard::recordBookings);
+		claimedCleaners.keySet().forEach(availabilityCache::evict);
+		return createdBookings;
+	}
+	
+	private BatchBookingResultDTO rejected(int index, String error) {
+		return BatchBookingResultDTO.builder()
+				.index(index)
+				.status(BatchBookingResultDTO.Status.REJECTED)
+				.error(error)
+				.build();
 	}
 	
 	public BookingDTO updateBooking(Integer id, BookingDTO bookingDTO) {
 		log.info("Updating booking id {} to {}", id, bookingDTO);
+		return bookingMetrics.time(BookingMetrics.UPDATE, () -> rescheduleBooking(id, bookingDTO));
+	}
+	
+	// Plans against the resident target day and the cached roster, then commits under the same cleaner-day
+	// locks and occupancy claim as a new booking, retrying when a concurrent write wins the race
+	private BookingDTO rescheduleBooking(Integer id, BookingDTO bookingDTO) {
 		LocalDate bookingDate = bookingDTO.getBookingDate();
 		LocalTime bookingStartTime = bookingDTO.getBookingStartTime();
 		int bookingDuration = bookingDTO.getBookingDuration();
@@ -64,83 +269,163 @@ public class BookingService {
 		Util.validateWorkingDay(bookingDate);
 		Util.validateWorkingHours(bookingDate, bookingStartTime, bookingDuration);
 		
-		Booking booking = bookingRepo.findById(id).orElseThrow(() -> new ValidationException("No existing booking against id " + id));
-		
-		List<Cleaner> bookingCleaners = booking.getCleaners(); // cleaners of current booking
-		
-		// checking if current cleaners are available for new time slots
-		List<Cleaner> filteredCleaners = bookingCleaners.stream()
-				.filter(cleaner -> availabilityService.isCleanerAvailableForUpdate(cleaner, bookingDate, bookingStartTime, bookingDuration, booking))
-				.collect(Collectors.toList());
-		
-		if (bookingCleaners.size() != filteredCleaners.size()) {
-			List<Cleaner> availableCleaners = availabilityService.getAvailableCleaners(bookingDate, bookingStartTime, bookingDuration);
-			availableCleaners = getCleanersByVehicleAndCount(availableCleaners, bookingCleaners.size());
-			for (Cleaner cleaner : availableCleaners) {
-				if (filteredCleaners.size() == bookingCleaners.size()) {
-					break;
+		int startMinute = CleanerSchedule.minuteOf(bookingStartTime);
+		int endMinute = startMinute + bookingDuration * 60;
+		List<CleanerSnapshot> cleaners = availabilityService.getCleaners();
+		for (int attempt = 1; ; attempt++) {
+			List<CleanerBookingSlot> currentSlots = bookingRepo.findSlotsByBookingId(id);
+			if (currentSlots.isEmpty()) {
+				throw new ValidationException("No existing booking against id " + id);
+			}
+			LocalDate previousDate = currentSlots.get(0).getBookingDate();
+			List<Integer> previousCleanerIds = currentSlots.stream().map(CleanerBookingSlot::getCleanerId).toList();
+			
+			DaySchedule targetDay = scheduleIndex.getDay(bookingDate);
+			VehicleTeams freeTeams = availabilityService.filterAvailableTeams(cleaners, targetDay, bookingStartTime, bookingDuration, id);
+			List<CleanerSnapshot> team = selectRescheduleTeam(freeTeams, targetDay, startMinute, endMinute, previousCleanerIds);
+			if (team.isEmpty()) {
+				bookingMetrics.recordAllocationFailure(BookingMetrics.NOT_ENOUGH_CLEANERS);
+				throw new ValidationException("Not enough cleaners available for requested time slot");
+			}
+			
+			// the booking leaves its previous cleaner-days and joins the new ones, so both sets are locked
+			Map<LocalDate, Set<Integer>> lockedCleaners = new TreeMap<>();
+			lockedCleaners.computeIfAbsent(previousDate, date -> new TreeSet<>()).addAll(previousCleanerIds);
+			lockedCleaners.computeIfAbsent(bookingDate, date -> new TreeSet<>()).addAll(cleanerIdsOf(team));
+			try (BookingLocks.Handle ignored = bookingMetrics.timeLockWait(() -> bookingLocks.lock(lockedCleaners))) {
+				Booking updatedBooking = transactionTemplate.execute(status ->
+						persistReschedule(currentSlots, bookingDate, bookingStartTime, bookingDuration, team));
+				return buildBookingResponse(updatedBooking, team);
+			} catch (AllocationConflictException | OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Reschedule attempt {} of booking {} lost a race: {}", attempt, id, e.getMessage());
+				bookingMetrics.recordAllocationFailure(BookingMetrics.CONCURRENT_CONFLICT);
+				// the conflict may have come from either day, so the next attempt reloads both
+				lockedCleaners.keySet().forEach(scheduleIndex::evict);
+				if (attempt >= maxAllocationAttempts) {
+					bookingMetrics.recordAllocationFailure(BookingMetrics.RETRIES_EXHAUSTED);
+					throw new ValidationException("Requested cleaners were booked concurrently, please retry");
+				}
+			}
+		}
+	}
+	
+	// Keeps as many of the booking's cleaners as one vehicle allows and tops the team up from that vehicle.
+	// When none of them is free the strategy picks a whole team, as it would for a new booking.
+	private List<CleanerSnapshot> selectRescheduleTeam(VehicleTeams freeTeams, DaySchedule targetDay, int startMinute, int endMinute,
+			List<Integer> previousCleanerIds) {
+		int teamSize = previousCleanerIds.size();
+		List<CleanerSnapshot> bestTeam = Collections.emptyList();
+		int bestKept = 0;
+		for (List<CleanerSnapshot> group : freeTeams.groups()) {
+			if (group.size() < teamSize) {
+				continue;
+			}
+			List<CleanerSnapshot> kept = new ArrayList<>(teamSize);
+			VehicleTeams.Builder others = VehicleTeams.builder();
+			for (CleanerSnapshot cleaner : group) {
+				if (previousCleanerIds.contains(cleaner.getCleanerId())) {
+					kept.add(cleaner);
+				} else {
+					others.add(cleaner);
 				}
-				if(!filteredCleaners.contains(cleaner.getCleanerId())) {
-					filteredCleaners.add(cleaner);
+			}
+			int keptCount = kept.size();
+			if (keptCount <= bestKept) {
+				continue;
+			}
+			if (keptCount < teamSize) {
+				List<CleanerSnapshot> topUp = allocationStrategy.select(others.build(), targetDay, startMinute, endMinute, teamSize - keptCount);
+				if (topUp.isEmpty()) {
+					continue;
 				}
+				kept.addAll(topUp);
+			}
+			bestTeam = kept;
+			bestKept = keptCount;
+			if (bestKept == teamSize) {
+				break;
 			}
 		}
+		return bestKept > 0 ? bestTeam : allocationStrategy.select(freeTeams, targetDay, startMinute, endMinute, teamSize);
+	}
+	
+	private Booking persistReschedule(List<CleanerBookingSlot> currentSlots, LocalDate bookingDate, LocalTime bookingStartTime, int bookingDuration,
+			List<CleanerSnapshot> team) {
+		CleanerBookingSlot current = currentSlots.get(0);
+		Integer id = current.getBookingId();
+		int startMinute = CleanerSchedule.minuteOf(bookingStartTime);
+		cleanerDayGuard.claim(bookingDate, cleanerIdsOf(team), startMinute, startMinute + bookingDuration * 60, id);
 		
-		if (filteredCleaners.size() != bookingCleaners.size())
-			throw new ValidationException("Not enough cleaners available for requested time slot");
+		Booking booking = bookingRepo.findById(id).orElseThrow(() -> new ValidationException("No existing booking against id " + id));
+		List<Integer> previousCleanerIds = currentSlots.stream().map(CleanerBookingSlot::getCleanerId).toList();
+		// the team was planned from the booking as read before the locks were taken
+		if (!current.getBookingDate().equals(booking.getBookingDate()) || !current.getBookingStartTime().equals(booking.getBookingStartTime())
+				|| !current.getBookingDuration().equals(booking.getBookingDuration())
+				|| !Set.copyOf(previousCleanerIds).equals(booking.getCleaners().stream().map(Cleaner::getCleanerId).collect(Collectors.toSet()))) {
+			throw new AllocationConflictException("Booking " + id + " was changed concurrently");
+		}
 		
+		LocalDate previousDate = booking.getBookingDate();
+		boolean moved = !previousDate.equals(bookingDate) || !booking.getBookingStartTime().equals(bookingStartTime)
+				|| booking.getBookingDuration() != bookingDuration;
+		cleanerDayGuard.removeBooking(previousDate, id, previousCleanerIds);
 		booking.setBookingDate(bookingDate);
 		booking.setBookingStartTime(bookingStartTime);
 		booking.setBookingDuration(bookingDuration);
-		booking.setCleaners(filteredCleaners);
-		return buildBookingResponse(bookingRepo.save(booking));
+		booking.setCleaners(referencesOf(team));
+		Booking savedBooking = bookingRepo.save(booking);
+		cleanerDayGuard.recordBookings(bookingDate, List.of(savedBooking));
+		if (moved) {
+			bookingOutbox.bookingRescheduled(savedBooking, previousDate);
+		}
+		if (!Set.copyOf(previousCleanerIds).equals(Set.copyOf(cleanerIdsOf(team)))) {
+			bookingOutbox.cleanersReassigned(savedBooking, previousCleanerIds);
+		}
+		scheduleIndex.recordReschedule(previousDate, savedBooking);
+		availabilityCache.evict(previousDate);
+		availabilityCache.evict(bookingDate);
+		return savedBooking;
 	}
 	
-	private BookingDTO buildBookingResponse(Booking booking) {
-		List<CleanerDTO> cleanerDtos = booking.getCleaners().stream()
+	// Names come from the roster snapshots, so the cleaner references on the booking stay uninitialized
+	private BookingDTO buildBookingResponse(Booking booking, List<CleanerSnapshot> team) {
+		List<CleanerDTO> cleanerDtos = team.stream()
 				.map(cleaner -> CleanerDTO.builder()
 						.cleanerId(cleaner.getCleanerId())
 						.cleanerName(cleaner.getCleanerName())
 						.build())
 				.collect(Collectors.toList());
-		
+		return toBookingDto(booking, cleanerDtos);
+	}
+	
+	private BookingDTO toBookingDto(Booking booking, List<CleanerDTO> cleanerDtos) {
 		return BookingDTO.builder()
 				.bookingDate(booking.getBookingDate())
 				.bookingStartTime(booking.getBookingStartTime())
 				.bookingDuration(booking.getBookingDuration())
-				.cleanerCount(booking.getCleaners().size())
+				.cleanerCount(cleanerDtos.size())
 				.cleaners(cleanerDtos)
 				.build();
 	}
 	
-	public List<Cleaner> getCleanersByVehicleAndCount(List<Cleaner> cleaners, int cleanerCount) {
-		// Step 1: Group cleaners by vehicle_id
-		Map<Integer, List<Cleaner>> vehicleCleanerMap = cleaners.stream()
-				.collect(Collectors.groupingBy(cleaner -> cleaner.getVehicle().getVehicleId()));
-		
-		vehicleCleanerMap.forEach((vehicleId, cleanerList) -> {
-			log.info("Vehicle ID: {} has cleaners: {}", vehicleId, cleanerList.stream()
-					.map(Cleaner::getCleanerName)
-					.collect(Collectors.joining(", ")));
-		});
-		
-		// Step 2: Find first vehicle that has cleaners equal to or more than cleanerCount
-		Optional<Map.Entry<Integer, List<Cleaner>>> matchingVehicleEntry = vehicleCleanerMap.entrySet().stream()
-				.filter(entry -> entry.getValue().size() >= cleanerCount)
-				.findFirst();
-		
-		// Step 3: If matching vehicle is found, extract its cleaners and return
-		if (matchingVehicleEntry.isPresent()) {
-			List<Cleaner> matchingCleaners = matchingVehicleEntry.get().getValue();
-			log.info("First vehicle (ID: {}) with {} or more cleaners: {}",
-					matchingVehicleEntry.get().getKey(), cleanerCount,
-					matchingCleaners.stream()
-							.map(Cleaner::getCleanerName)
-							.collect(Collectors.joining(", ")));
-			return matchingCleaners;
-		} else {
-			log.info("No vehicles found with {} or more cleaners.", cleanerCount);
-			return Collections.emptyList();
+	private static List<Integer> cleanerIdsOf(List<CleanerSnapshot> cleaners) {
+		return cleaners.stream().map(CleanerSnapshot::getCleanerId).toList();
+	}
+	
+	// Only the ids are written to the join table, so uninitialized references are enough
+	private List<Cleaner> referencesOf(List<CleanerSnapshot> team) {
+		return team.stream().map(cleaner -> cleanerRepo.getReferenceById(cleaner.getCleanerId())).collect(Collectors.toList());
+	}
+	
+	public List<CleanerSnapshot> getCleanersByVehicleAndCount(List<CleanerSnapshot> cleaners, int cleanerCount) {
+		VehicleTeams teams = VehicleTeams.of(cleaners);
+		List<CleanerSnapshot> matchingCleaners = teams.smallestGroupOf(cleanerCount);
+		if (matchingCleaners.isEmpty()) {
+			log.info("None of {} vehicles has {} or more free cleaners", teams.vehicleCount(), cleanerCount);
+		} else if (log.isDebugEnabled()) {
+			log.debug("Smallest vehicle with {} or more cleaners: {}", cleanerCount,
+					matchingCleaners.stream().map(CleanerSnapshot::getCleanerName).collect(Collectors.joining(", ")));
 		}
+		return matchingCleaners;
 	}
 }
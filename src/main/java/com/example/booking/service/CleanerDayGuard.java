@@ -0,0 +1,102 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.entity.CleanerDayOccupancy;
+import com.example.booking.exception.AllocationConflictException;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Database-level double-booking guard, used inside the allocation transaction. Every write
+ * bumps the version of the affected cleaner_day_occupancy rows, so two transactions racing for
+ * the same cleaner-day cannot both commit, whichever instance they run on.
+ * <p>
+ * The same rows carry each cleaner's busy intervals for the day. Writers update them in their own
+ * transaction, so once OccupancyRebuildJob has backfilled them they replace the booking joins.
+ * Occurrences of booking series not yet written as bookings are added from SeriesCalendar.
+ */
+@Component
+@RequiredArgsConstructor
+public class CleanerDayGuard {
+
+	private final CleanerDayOccupancyRepository occupancyRepo;
+	private final BookingRepository bookingRepo;
+	private final SeriesCalendar seriesCalendar;
+
+	@Value("${booking.occupancy.reads:false}")
+	private boolean occupancyReads = false;
+
+	// Claims the cleaner-days, then re-checks the request against committed bookings
+	public void claim(LocalDate date, Collection<Integer> cleanerIds, int startMinute, int endMinute, Integer ignoredBookingId) {
+		claim(date, cleanerIds).forEach((cleanerId, schedule) -> {
+			if (!schedule.isFree(startMinute, endMinute, ignoredBookingId)) {
+				throw new AllocationConflictException("Cleaner " + cleanerId + " was booked concurrently on " + date);
+			}
+		});
+	}
+
+	// Claims the cleaner-days and returns their committed schedules, for callers checking several requests at once
+	public Map<Integer, CleanerSchedule> claim(LocalDate date, Collection<Integer> cleanerIds) {
+		Map<Integer, CleanerDayOccupancy> occupancies = touchOccupancy(date, cleanerIds);
+		Map<Integer, CleanerSchedule> schedules;
+		if (occupancyReads) {
+			schedules = new HashMap<>();
+			occupancies.forEach((cleanerId, occupancy) -> schedules.put(cleanerId, CleanerSchedule.decode(occupancy.getBusyIntervals())));
+		} else {
+			schedules = CleanerSchedule.ofSlots(bookingRepo.findSlotsByBookingDateAndCleanerIds(date, cleanerIds));
+		}
+		seriesCalendar.overlay(date, schedules, cleanerIds);
+		return schedules;
+	}
+
+	// Adds saved bookings of one date to their cleaners' occupancy rows, in the caller's transaction
+	public void recordBookings(LocalDate date, List<Booking> bookings) {
+		Set<Integer> cleanerIds = new LinkedHashSet<>();
+		bookings.forEach(booking -> booking.getCleaners().forEach(cleaner -> cleanerIds.add(cleaner.getCleanerId())));
+		Map<Integer, CleanerDayOccupancy> occupancies = touchOccupancy(date, cleanerIds);
+		for (Booking booking : bookings) {
+			BusyInterval interval = CleanerSchedule.toInterval(booking);
+			for (Cleaner cleaner : booking.getCleaners()) {
+				CleanerDayOccupancy occupancy = occupancies.get(cleaner.getCleanerId());
+				occupancy.setBusyIntervals(CleanerSchedule.decode(occupancy.getBusyIntervals()).with(interval).encode());
+			}
+		}
+	}
+
+	// Takes a booking off the occupancy rows of the date and cleaners it held before a reschedule
+	public void removeBooking(LocalDate date, Integer bookingId, Collection<Integer> cleanerIds) {
+		for (CleanerDayOccupancy occupancy : occupancyRepo.findByOccupancyDateAndCleanerIdIn(date, cleanerIds)) {
+			occupancy.setBusyIntervals(CleanerSchedule.decode(occupancy.getBusyIntervals()).without(bookingId).encode());
+		}
+	}
+
+	private Map<Integer, CleanerDayOccupancy> touchOccupancy(LocalDate date, Collection<Integer> cleanerIds) {
+		Map<Integer, CleanerDayOccupancy> occupancies = new HashMap<>();
+		for (CleanerDayOccupancy occupancy : occupancyRepo.findByOccupancyDateAndCleanerIdIn(date, cleanerIds)) {
+			occupancies.put(occupancy.getCleanerId(), occupancy);
+		}
+		for (Integer cleanerId : cleanerIds) {
+			if (!occupancies.containsKey(cleanerId)) {
+				// a concurrent insert of the same cleaner-day fails on the unique key
+				occupancies.put(cleanerId, occupancyRepo.saveAndFlush(CleanerDayOccupancy.builder()
+						.cleanerId(cleanerId)
+						.occupancyDate(date)
+						.build()));
+			}
+		}
+		return occupancies;
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.RosterChangedEvent;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.repo.CleanerRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cached, immutable view of every cleaner and their vehicle. The roster rarely changes, so it is
+ * reloaded only when the TTL runs out or a cleaner/vehicle write invalidates it.
+ */
+@Component
+@Slf4j
+public class CleanerRoster {
+
+	private static final String ROSTER = "roster";
+
+	private final CleanerRepository cleanerRepo;
+	private final LoadingCache<String, List<CleanerSnapshot>> cache;
+
+	public CleanerRoster(CleanerRepository cleanerRepo, @Value("${booking.roster.ttl:PT10M}") Duration ttl) {
+		this.cleanerRepo = cleanerRepo;
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build(key -> load());
+	}
+
+	public List<CleanerSnapshot> getCleaners() {
+		return cache.get(ROSTER);
+	}
+
+	public void invalidate() {
+		cache.invalidateAll();
+	}
+
+	@EventListener
+	public void onRosterChange(RosterChangedEvent event) {
+		invalidateAfterCommit();
+	}
+
+	// A reload racing the writing transaction would otherwise cache the rows it is about to replace
+	public void invalidateAfterCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidate();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				invalidate();
+			}
+		});
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	private List<CleanerSnapshot> load() {
+		log.debug("Loading cleaner roster");
+		return cleanerRepo.findAllSnapshots();
+	}
+}
@@ -0,0 +1,232 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.util.Util;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, start-sorted busy intervals of one cleaner on one day. When every interval sits on
+ * the 15-minute grid the schedule also carries a {@link SlotMask}, so availability checks are a
+ * single AND; off-grid bookings fall back to binary searches over the interval starts.
+ */
+public final class CleanerSchedule {
+
+	public static final int BREAK_MINUTES = 30;
+	public static final CleanerSchedule EMPTY = new CleanerSchedule(Collections.emptyList());
+
+	private static final Comparator<BusyInterval> BY_START = Comparator.comparingInt(BusyInterval::getStartMinute);
+
+	private final List<BusyInterval> busyIntervals;
+	private final int[] starts;
+	// latest end among intervals 0..i, so a backwards walk knows when nothing earlier can still overlap
+	private final int[] reachEnds;
+	private final int[] sortedBookingIds;
+	private final boolean aligned;
+	// busy ticks widened by the break on both sides
+	private final long blockedMask;
+
+	// busyIntervals must already be sorted by start
+	private CleanerSchedule(List<BusyInterval> busyIntervals) {
+		this.busyIntervals = busyIntervals;
+		int size = busyIntervals.size();
+		this.starts = new int[size];
+		this.reachEnds = new int[size];
+		boolean allAligned = true;
+		long busyMask = 0L;
+		int[] bookingIds = new int[size];
+		int idCount = 0;
+		int reach = Integer.MIN_VALUE;
+		for (int i = 0; i < size; i++) {
+			BusyInterval interval = busyIntervals.get(i);
+			starts[i] = interval.getStartMinute();
+			reach = Math.max(reach, interval.getEndMinute());
+			reachEnds[i] = reach;
+			if (interval.getBookingId() != null) {
+				bookingIds[idCount++] = interval.getBookingId();
+			}
+			if (allAligned && SlotMask.isAligned(interval.getStartMinute(), interval.getEndMinute())) {
+				busyMask |= SlotMask.range(interval.getStartMinute(), interval.getEndMinute());
+			} else {
+				allAligned = false;
+			}
+		}
+		this.sortedBookingIds = Arrays.copyOf(bookingIds, idCount);
+		Arrays.sort(sortedBookingIds);
+		this.aligned = allAligned;
+		this.blockedMask = allAligned ? SlotMask.withBreaks(busyMask) : 0L;
+	}
+
+	public static CleanerSchedule of(List<Booking> bookings) {
+		List<BusyInterval> intervals = new ArrayList<>(bookings.size());
+		for (Booking booking : bookings) {
+			intervals.add(toInterval(booking));
+		}
+		return ofIntervals(intervals);
+	}
+
+	public static CleanerSchedule ofIntervals(List<BusyInterval> busyIntervals) {
+		List<BusyInterval> intervals = new ArrayList<>(busyIntervals);
+		intervals.sort(BY_START);
+		return new CleanerSchedule(Collections.unmodifiableList(intervals));
+	}
+
+	// Groups flat (cleaner, booking) rows into one schedule per cleaner that has any
+	public static Map<Integer, CleanerSchedule> ofSlots(List<CleanerBookingSlot> slots) {
+		Map<Integer, List<BusyInterval>> intervalsByCleaner = new HashMap<>();
+		for (CleanerBookingSlot slot : slots) {
+			int start = minuteOf(slot.getBookingStartTime());
+			intervalsByCleaner.computeIfAbsent(slot.getCleanerId(), id -> new ArrayList<>())
+					.add(new BusyInterval(slot.getBookingId(), start, start + slot.getBookingDuration() * 60));
+		}
+		Map<Integer, CleanerSchedule> schedules = new HashMap<>();
+		intervalsByCleaner.forEach((cleanerId, intervals) -> schedules.put(cleanerId, ofIntervals(intervals)));
+		return schedules;
+	}
+
+	public static BusyInterval toInterval(Booking booking) {
+		int start = minuteOf(booking.getBookingStartTime());
+		return new BusyInterval(booking.getBookingId(), start, start + booking.getBookingDuration() * 60);
+	}
+
+	public static int minuteOf(LocalTime time) {
+		return time.toSecondOfDay() / 60;
+	}
+
+	public static LocalTime timeOf(int minute) {
+		return LocalTime.ofSecondOfDay(minute * 60L);
+	}
+
+	// Compact form stored in cleaner_day_occupancy: "bookingId:startMinute:endMinute" per interval, comma separated
+	public String encode() {
+		StringBuilder encoded = new StringBuilder(busyIntervals.size() * 12);
+		for (BusyInterval interval : busyIntervals) {
+			if (encoded.length() > 0) {
+				encoded.append(',');
+			}
+			encoded.append(interval.getBookingId()).append(':').append(interval.getStartMinute()).append(':').append(interval.getEndMinute());
+		}
+		return encoded.toString();
+	}
+
+	public static CleanerSchedule decode(String encoded) {
+		if (encoded == null || encoded.isEmpty()) {
+			return EMPTY;
+		}
+		String[] entries = encoded.split(",");
+		List<BusyInterval> intervals = new ArrayList<>(entries.length);
+		for (String entry : entries) {
+			String[] fields = entry.split(":");
+			intervals.add(new BusyInterval(Integer.valueOf(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2])));
+		}
+		return ofIntervals(intervals);
+	}
+
+	public List<BusyInterval> getBusyIntervals() {
+		return busyIntervals;
+	}
+
+	public boolean isEmpty() {
+		return busyIntervals.isEmpty();
+	}
+
+	public boolean contains(Integer bookingId) {
+		return bookingId != null && Arrays.binarySearch(sortedBookingIds, bookingId) >= 0;
+	}
+
+	// Replaces any interval of the same booking; the new one is inserted at its sorted position
+	CleanerSchedule with(BusyInterval interval) {
+		CleanerSchedule base = without(interval.getBookingId());
+		int index = base.countStartingBefore(interval.getStartMinute() + 1);
+		List<BusyInterval> intervals = new ArrayList<>(base.busyIntervals.size() + 1);
+		intervals.addAll(base.busyIntervals.subList(0, index));
+		intervals.add(interval);
+		intervals.addAll(base.busyIntervals.subList(index, base.busyIntervals.size()));
+		return new CleanerSchedule(Collections.unmodifiableList(intervals));
+	}
+
+	CleanerSchedule without(Integer bookingId) {
+		if (!contains(bookingId)) {
+			return this;
+		}
+		List<BusyInterval> intervals = busyIntervals.stream()
+				.filter(interval -> !bookingId.equals(interval.getBookingId()))
+				.toList();
+		return intervals.isEmpty() ? EMPTY : new CleanerSchedule(intervals);
+	}
+
+	// A request fits when it keeps a full break away from every other booking
+	public boolean isFree(int startMinute, int endMinute, Integer ignoredBookingId) {
+		if (aligned && SlotMask.isAligned(startMinute, endMinute) && (ignoredBookingId == null || !contains(ignoredBookingId))) {
+			return (blockedMask & SlotMask.range(startMinute, endMinute)) == 0;
+		}
+		// only intervals starting before endMinute + break can clash; walk back from the latest of them
+		// until none earlier reaches past startMinute - break
+		for (int i = countStartingBefore(endMinute + BREAK_MINUTES) - 1; i >= 0 && reachEnds[i] + BREAK_MINUTES > startMinute; i--) {
+			BusyInterval interval = busyIntervals.get(i);
+			boolean ignored = ignoredBookingId != null && ignoredBookingId.equals(interval.getBookingId());
+			if (interval.getEndMinute() + BREAK_MINUTES > startMinute && !ignored) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Start of the free gap holding a request that starts at startMinute and is free
+	public int gapStart(int startMinute) {
+		int before = countStartingBefore(startMinute);
+		int shiftStart = minuteOf(Util.cleanerShiftStart);
+		return before == 0 ? shiftStart : Math.max(shiftStart, reachEnds[before - 1] + BREAK_MINUTES);
+	}
+
+	// End of the free gap holding a request that ends at endMinute and is free
+	public int gapEnd(int endMinute) {
+		int before = countStartingBefore(endMinute);
+		int shiftEnd = minuteOf(Util.cleanerShiftEnd);
+		return before == starts.length ? shiftEnd : Math.min(shiftEnd, starts[before] - BREAK_MINUTES);
+	}
+
+	private int countStartingBefore(int minute) {
+		int low = 0;
+		int high = starts.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] < minute) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// Free [from, to) minute pairs within the shift
+	public List<int[]> freeSlots() {
+		if (aligned) {
+			return SlotMask.freeSlots(blockedMask);
+		}
+		int shiftEnd = minuteOf(Util.cleanerShiftEnd);
+		List<int[]> slots = new ArrayList<>();
+		int currentSlotStart = minuteOf(Util.cleanerShiftStart);
+		for (BusyInterval interval : busyIntervals) {
+			int slotEnd = interval.getStartMinute() - BREAK_MINUTES;
+			if (currentSlotStart < slotEnd) {
+				slots.add(new int[]{currentSlotStart, slotEnd});
+			}
+			currentSlotStart = Math.max(currentSlotStart, interval.getEndMinute() + BREAK_MINUTES);
+		}
+		if (currentSlotStart < shiftEnd) {
+			slots.add(new int[]{currentSlotStart, shiftEnd});
+		}
+		return slots;
+	}
+}
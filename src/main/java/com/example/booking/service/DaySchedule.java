@@ -0,0 +1,77 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every cleaner's busy intervals on one date.
+ */
+public final class DaySchedule {
+
+	private final LocalDate date;
+	private final Map<Integer, CleanerSchedule> cleanerSchedules;
+
+	private DaySchedule(LocalDate date, Map<Integer, CleanerSchedule> cleanerSchedules) {
+		this.date = date;
+		this.cleanerSchedules = cleanerSchedules;
+	}
+
+	public static DaySchedule of(LocalDate date, List<Booking> bookings) {
+		Map<Integer, List<Booking>> bookingsByCleaner = new HashMap<>();
+		for (Booking booking : bookings) {
+			for (Cleaner cleaner : booking.getCleaners()) {
+				bookingsByCleaner.computeIfAbsent(cleaner.getCleanerId(), id -> new ArrayList<>()).add(booking);
+			}
+		}
+		Map<Integer, CleanerSchedule> cleanerSchedules = new HashMap<>();
+		bookingsByCleaner.forEach((cleanerId, cleanerBookings) -> cleanerSchedules.put(cleanerId, CleanerSchedule.of(cleanerBookings)));
+		return new DaySchedule(date, Collections.unmodifiableMap(cleanerSchedules));
+	}
+
+	public static DaySchedule ofSlots(LocalDate date, List<CleanerBookingSlot> slots) {
+		return new DaySchedule(date, Collections.unmodifiableMap(CleanerSchedule.ofSlots(slots)));
+	}
+
+	public static DaySchedule of(LocalDate date, Map<Integer, CleanerSchedule> cleanerSchedules) {
+		return new DaySchedule(date, Collections.unmodifiableMap(new HashMap<>(cleanerSchedules)));
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public CleanerSchedule getCleanerSchedule(Integer cleanerId) {
+		return cleanerSchedules.getOrDefault(cleanerId, CleanerSchedule.EMPTY);
+	}
+
+	// A copy holding the booking as well; working copies use it to allocate ahead of the database
+	public DaySchedule withBooking(BusyInterval interval, List<Integer> cleanerIds) {
+		Map<Integer, CleanerSchedule> updated = new HashMap<>(withoutBooking(interval.getBookingId()).cleanerSchedules);
+		for (Integer cleanerId : cleanerIds) {
+			updated.put(cleanerId, updated.getOrDefault(cleanerId, CleanerSchedule.EMPTY).with(interval));
+		}
+		return new DaySchedule(date, Collections.unmodifiableMap(updated));
+	}
+
+	DaySchedule withoutBooking(Integer bookingId) {
+		Map<Integer, CleanerSchedule> updated = null;
+		for (Map.Entry<Integer, CleanerSchedule> entry : cleanerSchedules.entrySet()) {
+			if (entry.getValue().contains(bookingId)) {
+				if (updated == null) {
+					updated = new HashMap<>(cleanerSchedules);
+				}
+				updated.put(entry.getKey(), entry.getValue().without(bookingId));
+			}
+		}
+		return updated == null ? this : new DaySchedule(date, Collections.unmodifiableMap(updated));
+	}
+}
@@ -0,0 +1,25 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerSnapshot;
+
+import java.util.Collections;
+import java.util.List;
+
+// The first vehicle in roster order that seats the team, as allocation originally worked
+public class FirstFitStrategy implements AllocationStrategy {
+
+	@Override
+	public String name() {
+		return "first-fit";
+	}
+
+	@Override
+	public List<CleanerSnapshot> select(VehicleTeams teams, DaySchedule daySchedule, int startMinute, int endMinute, int teamSize) {
+		for (List<CleanerSnapshot> group : teams.groups()) {
+			if (group.size() >= teamSize) {
+				return List.copyOf(group.subList(0, teamSize));
+			}
+		}
+		return Collections.emptyList();
+	}
+}
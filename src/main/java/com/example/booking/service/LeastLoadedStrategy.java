@@ -0,0 +1,21 @@
+package com.example.booking.service;
+
+import com.example.booking.model.BusyInterval;
+
+// Spreads work by picking the cleaners, and through them the vehicle, with the fewest booked minutes that day
+public class LeastLoadedStrategy extends ScoredAllocationStrategy {
+
+	@Override
+	public String name() {
+		return "least-loaded";
+	}
+
+	@Override
+	protected long cost(CleanerSchedule schedule, int startMinute, int endMinute) {
+		long busyMinutes = 0;
+		for (BusyInterval interval : schedule.getBusyIntervals()) {
+			busyMinutes += interval.getEndMinute() - interval.getStartMinute();
+		}
+		return busyMinutes;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.CleanerDayOccupancy;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backfills and repairs cleaner_day_occupancy from the bookings themselves. Runs once at startup
+ * up to the last booked date, then nightly over the bookable horizon.
+ * <p>
+ * Each date is rebuilt in its own transaction, reading the occupancy rows before the bookings: a booking
+ * committed in between bumps the version of a row this job then writes, so the repair fails and is
+ * retried from a fresh read instead of overwriting the newer intervals. A date that keeps failing fails
+ * the run; at startup that fails the backfill before readiness is reported, so an instance with
+ * booking.occupancy.reads on never serves rows it could not repair.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OccupancyRebuildJob {
+
+	private final BookingRepository bookingRepo;
+	private final CleanerDayOccupancyRepository occupancyRepo;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${booking.occupancy.rebuild-days:90}")
+	private int rebuildDays = 90;
+	@Value("${booking.occupancy.rebuild-attempts:3}")
+	private int maxRebuildAttempts = 3;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		LocalDate today = LocalDate.now();
+		LocalDate latest = bookingRepo.findLatestBookingDate();
+		rebuild(today, latest == null || latest.isBefore(today) ? today : latest);
+	}
+
+	@Scheduled(cron = "${booking.occupancy.rebuild-cron:0 30 3 * * *}")
+	public void nightlyRebuild() {
+		LocalDate today = LocalDate.now();
+		rebuild(today, today.plusDays(rebuildDays));
+	}
+
+	// Returns how many rows were created or corrected over the range, or throws once every other date is done
+	// if some could not be rebuilt
+	public int rebuild(LocalDate from, LocalDate to) {
+		int repaired = 0;
+		List<LocalDate> failedDates = new ArrayList<>();
+		for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+			Integer repairedOnDay = rebuildWithRetries(date);
+			if (repairedOnDay == null) {
+				failedDates.add(date);
+			} else if (repairedOnDay > 0) {
+				scheduleIndex.evict(date);
+				availabilityCache.evict(date);
+				repaired += repairedOnDay;
+			}
+		}
+		log.info("Rebuilt occupancy from {} to {}, {} rows repaired", from, to, repaired);
+		if (!failedDates.isEmpty()) {
+			throw new IllegalStateException("Occupancy of " + failedDates + " could not be rebuilt, the dates kept being booked concurrently");
+		}
+		return repaired;
+	}
+
+	// Returns the rows repaired on the date, or null once every attempt lost to a concurrent booking
+	private Integer rebuildWithRetries(LocalDate date) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> rebuildDay(date));
+			} catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Occupancy rebuild attempt {} of {} lost a race: {}", attempt, date, e.getMessage());
+				if (attempt >= maxRebuildAttempts) {
+					log.error("Giving up on the occupancy rebuild of {} after {} attempts", date, attempt);
+					return null;
+				}
+			}
+		}
+	}
+
+	private int rebuildDay(LocalDate date) {
+		Map<Integer, CleanerDayOccupancy> occupancies = new HashMap<>();
+		for (CleanerDayOccupancy occupancy : occupancyRepo.findAllByOccupancyDate(date)) {
+			occupancies.put(occupancy.getCleanerId(), occupancy);
+		}
+		Map<Integer, CleanerSchedule> schedules = CleanerSchedule.ofSlots(bookingRepo.findSlotsByBookingDate(date));
+
+		int repaired = 0;
+		for (Map.Entry<Integer, CleanerSchedule> entry : schedules.entrySet()) {
+			String expected = entry.getValue().encode();
+			CleanerDayOccupancy occupancy = occupancies.remove(entry.getKey());
+			if (occupancy == null) {
+				occupancyRepo.save(CleanerDayOccupancy.builder()
+						.cleanerId(entry.getKey())
+						.occupancyDate(date)
+						.busyIntervals(expected)
+						.build());
+				repaired++;
+			} else if (!expected.equals(occupancy.getBusyIntervals())) {
+				occupancy.setBusyIntervals(expected);
+				repaired++;
+			}
+		}
+		// rows left over hold intervals of bookings that no longer exist on this date
+		for (CleanerDayOccupancy stale : occupancies.values()) {
+			if (!stale.getBusyIntervals().isEmpty()) {
+				stale.setBusyIntervals("");
+				repaired++;
+			}
+		}
+		return repaired;
+	}
+}
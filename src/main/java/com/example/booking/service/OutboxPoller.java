@@ -0,0 +1,103 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import com.example.booking.repo.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tails booking_outbox and hands each new event to every BookingEventListener. Every instance keeps its own
+ * cursor, starting from the latest event at its first poll, so all of them see every change.
+ * <p>
+ * Identity ids are assigned at insert but become visible at commit, so an id skipped over may still belong
+ * to a transaction in flight. Skipped ids are re-read on later polls until booking.outbox.gap-timeout,
+ * after which they are taken to be rolled back.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPoller {
+
+	private final OutboxEventRepository outboxRepo;
+	private final BookingOutbox bookingOutbox;
+	private final List<BookingEventListener> listeners;
+
+	@Value("${booking.outbox.batch-size:200}")
+	private int batchSize = 200;
+	@Value("${booking.outbox.gap-timeout:PT30S}")
+	private Duration gapTimeout = Duration.ofSeconds(30);
+	@Value("${booking.outbox.retention:P7D}")
+	private Duration retention = Duration.ofDays(7);
+
+	// last outbox id read by this instance, null until the first poll
+	private Long cursor;
+	// ids skipped over by the cursor, with when they were first seen missing
+	private final Map<Long, Instant> gaps = new HashMap<>();
+
+	// fixed delay, so runs never overlap and the cursor needs no locking
+	@Scheduled(fixedDelayString = "${booking.outbox.poll-interval:PT1S}")
+	public void poll() {
+		if (cursor == null) {
+			Long latest = outboxRepo.findLatestOutboxId();
+			cursor = latest == null ? 0L : latest;
+			return;
+		}
+		Instant now = Instant.now();
+		if (!gaps.isEmpty()) {
+			for (OutboxEvent outboxEvent : outboxRepo.findByOutboxIdInOrderByOutboxIdAsc(List.copyOf(gaps.keySet()))) {
+				gaps.remove(outboxEvent.getOutboxId());
+				dispatch(outboxEvent);
+			}
+			gaps.values().removeIf(since -> since.plus(gapTimeout).isBefore(now));
+		}
+		List<OutboxEvent> batch;
+		do {
+			batch = outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(cursor, Limit.of(batchSize));
+			for (OutboxEvent outboxEvent : batch) {
+				// a jump wider than a batch is an identity cache reset rather than transactions in flight
+				if (outboxEvent.getOutboxId() - cursor <= batchSize) {
+					for (long skipped = cursor + 1; skipped < outboxEvent.getOutboxId(); skipped++) {
+						gaps.put(skipped, now);
+					}
+				}
+				dispatch(outboxEvent);
+				cursor = outboxEvent.getOutboxId();
+			}
+		} while (batch.size() == batchSize);
+	}
+
+	@Scheduled(cron = "${booking.outbox.cleanup-cron:0 0 4 * * *}")
+	public void deleteExpired() {
+		int deleted = outboxRepo.deleteOccurredBefore(LocalDateTime.now().minus(retention));
+		log.info("Deleted {} booking events older than {}", deleted, retention);
+	}
+
+	private void dispatch(OutboxEvent outboxEvent) {
+		BookingEventDTO event;
+		try {
+			event = bookingOutbox.decode(outboxEvent);
+		} catch (IllegalStateException e) {
+			log.error("Skipping booking event {}", outboxEvent.getOutboxId(), e);
+			return;
+		}
+		for (BookingEventListener listener : listeners) {
+			try {
+				listener.onBookingEvent(event);
+			} catch (RuntimeException e) {
+				log.warn("{} failed on booking event {}", listener.getClass().getSimpleName(), event.getEventId(), e);
+			}
+		}
+	}
+}
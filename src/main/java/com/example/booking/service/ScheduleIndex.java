@@ -0,0 +1,221 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.model.CleanerDayIntervals;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Resident per-day view of cleaner schedules. A date is loaded from the database on first use
+ * and afterwards kept current by BookingService writing through every committed change.
+ * <p>
+ * Loads run under a striped ReentrantLock rather than inside ConcurrentHashMap.computeIfAbsent, whose bin
+ * monitor would pin a virtual thread's carrier for the whole query. Write-through and eviction take the
+ * same stripe, so a booking committed while its day is loading is still applied once the load lands.
+ * <p>
+ * With booking.occupancy.reads on, days are built from the cleaner_day_occupancy rows of the date
+ * (one index range scan) instead of joining bookings with their cleaners. Either way the rows come back
+ * as constructor-expression projections, so no entity is loaded or tracked by the persistence context.
+ * <p>
+ * Occurrences of booking series beyond their materialized horizon are overlaid from SeriesCalendar as a
+ * day is built, so they are baked into the one resident instance rather than composed on every read.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ScheduleIndex {
+
+	private final BookingRepository bookingRepo;
+	private final CleanerDayOccupancyRepository occupancyRepo;
+	private final SeriesCalendar seriesCalendar;
+	private final ConcurrentMap<LocalDate, DaySchedule> days = new ConcurrentHashMap<>();
+	private final ReentrantLock[] dayLocks = newLocks(64);
+	
+	@Value("${booking.occupancy.reads:false}")
+	private boolean occupancyReads = false;
+
+	// Callers stay outside read-only transactions, so a resident day is never loaded from a lagging replica
+	public DaySchedule getDay(LocalDate date) {
+		DaySchedule daySchedule = days.get(date);
+		if (daySchedule != null) {
+			return daySchedule;
+		}
+		// past days are never booked again, so they are not kept resident
+		days.keySet().removeIf(day -> day.isBefore(LocalDate.now()));
+		ReentrantLock lock = lockOf(date);
+		lock.lock();
+		try {
+			daySchedule = days.get(date);
+			if (daySchedule == null) {
+				daySchedule = loadDay(date);
+				days.put(date, daySchedule);
+			}
+			return daySchedule;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Serves resident days as they are and loads the rest of the range in one query. Those loaded days are
+	// not made resident: a booking committed while the query runs would have no resident day to write through to.
+	public Map<LocalDate, DaySchedule> getDays(LocalDate from, LocalDate to) {
+		return getDays(from.datesUntil(to.plusDays(1)).toList(),
+				missing -> occupancyRepo.findIntervalsByOccupancyDateBetween(from, to),
+				missing -> bookingRepo.findSlotsByBookingDateBetween(from, to));
+	}
+
+	// The same for scattered dates, such as the occurrences of a series: only the missing dates are queried
+	public Map<LocalDate, DaySchedule> getDays(Collection<LocalDate> dates) {
+		return getDays(dates, occupancyRepo::findIntervalsByOccupancyDateIn, bookingRepo::findSlotsByBookingDateIn);
+	}
+
+	private Map<LocalDate, DaySchedule> getDays(Collection<LocalDate> dates,
+			Function<List<LocalDate>, List<CleanerDayIntervals>> loadIntervals,
+			Function<List<LocalDate>, List<CleanerBookingSlot>> loadSlots) {
+		Map<LocalDate, DaySchedule> schedules = new TreeMap<>();
+		List<LocalDate> missing = new ArrayList<>();
+		for (LocalDate date : dates) {
+			DaySchedule daySchedule = days.get(date);
+			if (daySchedule != null) {
+				schedules.put(date, daySchedule);
+			} else {
+				missing.add(date);
+			}
+		}
+		if (missing.isEmpty()) {
+			return schedules;
+		}
+		log.debug("Loading schedules of {} days from {}", missing.size(), missing.get(0));
+		if (occupancyReads) {
+			Map<LocalDate, Map<Integer, CleanerSchedule>> schedulesByDate = new HashMap<>();
+			for (CleanerDayIntervals intervals : loadIntervals.apply(missing)) {
+				schedulesByDate.computeIfAbsent(intervals.getOccupancyDate(), date -> new HashMap<>())
+						.put(intervals.getCleanerId(), CleanerSchedule.decode(intervals.getBusyIntervals()));
+			}
+			for (LocalDate date : missing) {
+				schedules.computeIfAbsent(date, day -> seriesCalendar.overlay(DaySchedule.of(day, schedulesByDate.getOrDefault(day, Map.of()))));
+			}
+			return schedules;
+		}
+		Map<LocalDate, List<CleanerBookingSlot>> slotsByDate = new HashMap<>();
+		for (CleanerBookingSlot slot : loadSlots.apply(missing)) {
+			slotsByDate.computeIfAbsent(slot.getBookingDate(), date -> new ArrayList<>()).add(slot);
+		}
+		for (LocalDate date : missing) {
+			schedules.computeIfAbsent(date, day -> seriesCalendar.overlay(DaySchedule.ofSlots(day, slotsByDate.getOrDefault(day, List.of()))));
+		}
+		return schedules;
+	}
+
+	public CleanerSchedule getCleanerSchedule(LocalDate date, Integer cleanerId) {
+		return getDay(date).getCleanerSchedule(cleanerId);
+	}
+
+	public void recordBooking(Booking booking) {
+		LocalDate date = booking.getBookingDate();
+		BusyInterval interval = CleanerSchedule.toInterval(booking);
+		List<Integer> cleanerIds = cleanerIdsOf(booking);
+		afterCommit(() -> withDayLocked(date, () -> days.computeIfPresent(date, (day, schedule) -> schedule.withBooking(interval, cleanerIds))));
+	}
+
+	public void recordReschedule(LocalDate previousDate, Booking booking) {
+		LocalDate date = booking.getBookingDate();
+		BusyInterval interval = CleanerSchedule.toInterval(booking);
+		List<Integer> cleanerIds = cleanerIdsOf(booking);
+		afterCommit(() -> {
+			if (!previousDate.equals(date)) {
+				withDayLocked(previousDate, () -> days.computeIfPresent(previousDate, (day, schedule) -> schedule.withoutBooking(interval.getBookingId())));
+			}
+			withDayLocked(date, () -> days.computeIfPresent(date, (day, schedule) -> schedule.withBooking(interval, cleanerIds)));
+		});
+	}
+
+	public void evict(LocalDate date) {
+		withDayLocked(date, () -> days.remove(date));
+	}
+
+	// Drops every resident day from the date on, one stripe at a time: a load already running under a stripe
+	// lands before its stripe is swept, and any later load reads the series calendar as it is now
+	public void evictFrom(LocalDate from) {
+		for (ReentrantLock lock : dayLocks) {
+			lock.lock();
+			try {
+				days.keySet().removeIf(date -> !date.isBefore(from) && lockOf(date) == lock);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private DaySchedule loadDay(LocalDate date) {
+		log.debug("Loading schedule for {}", date);
+		if (occupancyReads) {
+			Map<Integer, CleanerSchedule> cleanerSchedules = new HashMap<>();
+			for (CleanerDayIntervals intervals : occupancyRepo.findIntervalsByOccupancyDate(date)) {
+				cleanerSchedules.put(intervals.getCleanerId(), CleanerSchedule.decode(intervals.getBusyIntervals()));
+			}
+			return seriesCalendar.overlay(DaySchedule.of(date, cleanerSchedules));
+		}
+		return seriesCalendar.overlay(DaySchedule.ofSlots(date, bookingRepo.findSlotsByBookingDate(date)));
+	}
+
+	private void withDayLocked(LocalDate date, Runnable action) {
+		ReentrantLock lock = lockOf(date);
+		lock.lock();
+		try {
+			action.run();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private ReentrantLock lockOf(LocalDate date) {
+		return dayLocks[Math.floorMod(date.hashCode(), dayLocks.length)];
+	}
+
+	private static ReentrantLock[] newLocks(int count) {
+		ReentrantLock[] locks = new ReentrantLock[count];
+		for (int i = 0; i < count; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		return locks;
+	}
+
+	private static List<Integer> cleanerIdsOf(Booking booking) {
+		return booking.getCleaners().stream().map(Cleaner::getCleanerId).toList();
+	}
+
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Scores every free cleaner against the day, takes the cheapest teamSize cleaners of each vehicle and
+ * keeps the vehicle with the lowest total. Equal totals go to the smaller vehicle, then to roster order.
+ */
+abstract class ScoredAllocationStrategy implements AllocationStrategy {
+
+	protected abstract long cost(CleanerSchedule schedule, int startMinute, int endMinute);
+
+	@Override
+	public List<CleanerSnapshot> select(VehicleTeams teams, DaySchedule daySchedule, int startMinute, int endMinute, int teamSize) {
+		List<CleanerSnapshot> best = Collections.emptyList();
+		long bestCost = Long.MAX_VALUE;
+		int bestGroupSize = Integer.MAX_VALUE;
+		for (List<CleanerSnapshot> group : teams.groups()) {
+			if (group.size() < teamSize) {
+				continue;
+			}
+			long[] costs = new long[group.size()];
+			Integer[] order = new Integer[group.size()];
+			for (int i = 0; i < costs.length; i++) {
+				costs[i] = cost(daySchedule.getCleanerSchedule(group.get(i).getCleanerId()), startMinute, endMinute);
+				order[i] = i;
+			}
+			// stable, so equally scored cleaners keep roster order
+			Arrays.sort(order, Comparator.comparingLong(i -> costs[i]));
+			long groupCost = 0;
+			for (int k = 0; k < teamSize; k++) {
+				groupCost += costs[order[k]];
+			}
+			if (groupCost < bestCost || (groupCost == bestCost && group.size() < bestGroupSize)) {
+				List<CleanerSnapshot> team = new ArrayList<>(teamSize);
+				for (int k = 0; k < teamSize; k++) {
+					team.add(group.get(order[k]));
+				}
+				best = Collections.unmodifiableList(team);
+				bestCost = groupCost;
+				bestGroupSize = group.size();
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.booking.service;
+
+import com.example.booking.repo.BookingSeriesRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached rules of every booking series with occurrences not yet written as bookings. Schedules overlay
+ * the pending occurrences of their date, so availability honours a series over its whole length while
+ * SeriesMaterializer only writes the rolling horizon of it. Dropped when a series write commits here or
+ * on another instance, and reloaded when the TTL runs out.
+ */
+@Component
+@Slf4j
+public class SeriesCalendar {
+
+	private static final String SERIES = "series";
+
+	private final BookingSeriesRepository seriesRepo;
+	private final LoadingCache<String, List<SeriesOccurrences>> cache;
+
+	public SeriesCalendar(BookingSeriesRepository seriesRepo, @Value("${booking.series.ttl:PT10M}") Duration ttl) {
+		this.seriesRepo = seriesRepo;
+		this.cache = Caffeine.newBuilder()
+				.expireAfterWrite(ttl)
+				.build(key -> load());
+	}
+
+	public List<SeriesOccurrences> getSeries() {
+		return cache.get(SERIES);
+	}
+
+	public List<SeriesOccurrences> pendingOn(LocalDate date) {
+		return getSeries().stream().filter(series -> series.isPendingOn(date)).toList();
+	}
+
+	// The day with the pending occurrences of its date added, or the same instance when there are none
+	public DaySchedule overlay(DaySchedule daySchedule) {
+		DaySchedule overlaid = daySchedule;
+		for (SeriesOccurrences series : pendingOn(daySchedule.getDate())) {
+			overlaid = overlaid.withBooking(series.getInterval(), series.getCleanerIds());
+		}
+		return overlaid;
+	}
+
+	// Adds the pending occurrences of the date to the schedules of those of the cleaners they belong to
+	public void overlay(LocalDate date, Map<Integer, CleanerSchedule> cleanerSchedules, Iterable<Integer> cleanerIds) {
+		for (SeriesOccurrences series : pendingOn(date)) {
+			for (Integer cleanerId : cleanerIds) {
+				if (series.getCleanerIds().contains(cleanerId)) {
+					cleanerSchedules.put(cleanerId, cleanerSchedules.getOrDefault(cleanerId, CleanerSchedule.EMPTY).with(series.getInterval()));
+				}
+			}
+		}
+	}
+
+	public void invalidate() {
+		cache.invalidateAll();
+	}
+
+	private List<SeriesOccurrences> load() {
+		log.debug("Loading pending booking series");
+		return SeriesOccurrences.ofSlots(seriesRepo.findPendingSlots());
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes occurrences of booking series as bookings once they enter the rolling horizon
+ * (booking.series.horizon-days), so a long series only costs rows as its occurrences come due.
+ * Runs once at startup to catch up, then nightly.
+ * <p>
+ * Each series is materialized in its own transaction under the same claims as any booking. An occurrence
+ * its cleaners were booked over in the meantime is skipped rather than failing the rest of the series, and
+ * reported as an OCCURRENCE_SKIPPED outbox event; two instances racing for the same series collide on its
+ * version or on uk_booking_series_date.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SeriesMaterializer {
+
+	private final BookingSeriesRepository seriesRepo;
+	private final BookingRepository bookingRepo;
+	private final CleanerDayGuard cleanerDayGuard;
+	private final BookingLocks bookingLocks;
+	private final BookingOutbox bookingOutbox;
+	private final SeriesCalendar seriesCalendar;
+	private final ScheduleIndex scheduleIndex;
+	private final AvailabilityCache availabilityCache;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${booking.series.horizon-days:28}")
+	private int horizonDays = 28;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void catchUp() {
+		materializeHorizon();
+	}
+
+	@Scheduled(cron = "${booking.series.materialize-cron:0 0 3 * * *}")
+	public void materializeHorizon() {
+		materialize(horizonEnd());
+	}
+
+	// Returns how many occurrences were written as bookings
+	public int materialize(LocalDate through) {
+		int written = 0;
+		TreeSet<LocalDate> touchedDates = new TreeSet<>();
+		for (SeriesOccurrences series : seriesCalendar.getSeries()) {
+			List<LocalDate> dates = series.pendingDates(through);
+			if (dates.isEmpty()) {
+				continue;
+			}
+			Map<LocalDate, List<Integer>> lockedCleaners = new TreeMap<>();
+			dates.forEach(date -> lockedCleaners.put(date, series.getCleanerIds()));
+			try (BookingLocks.Handle ignored = bookingLocks.lock(lockedCleaners)) {
+				written += transactionTemplate.execute(status -> materializeSeries(series.getSeriesId(), through));
+				touchedDates.addAll(dates);
+			} catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+				log.warn("Skipping series {}, it was materialized or booked concurrently: {}", series.getSeriesId(), e.getMessage());
+			}
+		}
+		if (!touchedDates.isEmpty()) {
+			// the calendar first, so the days reloaded next no longer overlay what is now a booking
+			seriesCalendar.invalidate();
+			for (LocalDate date : touchedDates) {
+				scheduleIndex.evict(date);
+				availabilityCache.evict(date);
+			}
+		}
+		log.info("Materialized booking series through {}, {} occurrences written", through, written);
+		return written;
+	}
+
+	LocalDate horizonEnd() {
+		return LocalDate.now().plusDays(horizonDays);
+	}
+
+	// Saves the occurrences as bookings of the series in the caller's transaction and advances its mark to through
+	void writeOccurrences(BookingSeries series, List<LocalDate> dates, LocalDate through) {
+		for (LocalDate date : dates) {
+			Booking booking = bookingRepo.save(Booking.builder()
+					.bookingDate(date)
+					.bookingStartTime(series.getBookingStartTime())
+					.bookingDuration(series.getBookingDuration())
+					.seriesId(series.getSeriesId())
+					.cleaners(new ArrayList<>(series.getCleaners()))
+					.build());
+			cleanerDayGuard.recordBookings(date, List.of(booking));
+			bookingOutbox.bookingCreated(booking);
+		}
+		series.setMaterializedThrough(through.isBefore(series.getLastDate()) ? through : series.getLastDate());
+	}
+
+	private int materializeSeries(Integer seriesId, LocalDate through) {
+		BookingSeries series = seriesRepo.findById(seriesId).orElse(null);
+		if (series == null) {
+			return 0;
+		}
+		// re-read under the claims, the cached rule may be behind another instance's run
+		SeriesOccurrences occurrences = SeriesOccurrences.of(series);
+		List<LocalDate> dates = occurrences.pendingDates(through);
+		if (dates.isEmpty()) {
+			return 0;
+		}
+		int startMinute = occurrences.getInterval().getStartMinute();
+		int endMinute = occurrences.getInterval().getEndMinute();
+		Integer placeholderId = occurrences.getInterval().getBookingId();
+		List<LocalDate> freeDates = new ArrayList<>();
+		for (LocalDate date : dates) {
+			Map<Integer, CleanerSchedule> schedules = cleanerDayGuard.claim(date, occurrences.getCleanerIds());
+			if (schedules.values().stream().allMatch(schedule -> schedule.isFree(startMinute, endMinute, placeholderId))) {
+				freeDates.add(date);
+			} else {
+				log.warn("Skipping occurrence of series {} on {}, its cleaners were booked over it", seriesId, date);
+				bookingOutbox.occurrenceSkipped(series, date, occurrences.getCleanerIds());
+			}
+		}
+		writeOccurrences(series, freeDates, through);
+		return freeDates.size();
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.SeriesCleanerSlot;
+import com.example.booking.util.Util;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable occurrence rule of one booking series: every intervalWeeks weeks on the weekday of firstDate,
+ * up to lastDate. Occurrences after materializedThrough have no booking rows yet, so schedules carry them
+ * as an interval under a placeholder booking id instead.
+ */
+public final class SeriesOccurrences {
+
+	private final Integer seriesId;
+	private final LocalDate firstDate;
+	private final LocalDate lastDate;
+	private final int intervalWeeks;
+	private final LocalDate materializedThrough;
+	private final BusyInterval interval;
+	private final List<Integer> cleanerIds;
+
+	private SeriesOccurrences(Integer seriesId, LocalDate firstDate, LocalDate lastDate, int intervalWeeks, LocalDate materializedThrough,
+			LocalTime bookingStartTime, int bookingDuration, List<Integer> cleanerIds) {
+		this.seriesId = seriesId;
+		this.firstDate = firstDate;
+		this.lastDate = lastDate;
+		this.intervalWeeks = intervalWeeks;
+		this.materializedThrough = materializedThrough;
+		int start = CleanerSchedule.minuteOf(bookingStartTime);
+		this.interval = new BusyInterval(placeholderId(seriesId), start, start + bookingDuration * 60);
+		this.cleanerIds = cleanerIds;
+	}
+
+	public static SeriesOccurrences of(BookingSeries series) {
+		return new SeriesOccurrences(series.getSeriesId(), series.getFirstDate(), series.getLastDate(), series.getIntervalWeeks(),
+				series.getMaterializedThrough(), series.getBookingStartTime(), series.getBookingDuration(),
+				series.getCleaners().stream().map(Cleaner::getCleanerId).toList());
+	}
+
+	// Groups flat (series, cleaner) rows, ordered by series, into one rule per series
+	public static List<SeriesOccurrences> ofSlots(List<SeriesCleanerSlot> slots) {
+		Map<Integer, List<SeriesCleanerSlot>> slotsBySeries = new LinkedHashMap<>();
+		for (SeriesCleanerSlot slot : slots) {
+			slotsBySeries.computeIfAbsent(slot.getSeriesId(), id -> new ArrayList<>()).add(slot);
+		}
+		List<SeriesOccurrences> series = new ArrayList<>(slotsBySeries.size());
+		for (List<SeriesCleanerSlot> seriesSlots : slotsBySeries.values()) {
+			SeriesCleanerSlot slot = seriesSlots.get(0);
+			series.add(new SeriesOccurrences(slot.getSeriesId(), slot.getFirstDate(), slot.getLastDate(), slot.getIntervalWeeks(),
+					slot.getMaterializedThrough(), slot.getBookingStartTime(), slot.getBookingDuration(),
+					seriesSlots.stream().map(SeriesCleanerSlot::getCleanerId).toList()));
+		}
+		return Collections.unmodifiableList(series);
+	}
+
+	// Expands a rule ending after occurrenceCount occurrences or on untilDate, stopping once limit dates are reached.
+	// All occurrences share the first one's weekday, so a series starting on a Friday has none at all.
+	public static List<LocalDate> dates(LocalDate firstDate, int intervalWeeks, Integer occurrenceCount, LocalDate untilDate, int limit) {
+		List<LocalDate> dates = new ArrayList<>();
+		if (!Util.isWorkingDay(firstDate)) {
+			return dates;
+		}
+		for (LocalDate date = firstDate; dates.size() < limit; date = date.plusWeeks(intervalWeeks)) {
+			if (occurrenceCount != null ? dates.size() >= occurrenceCount : date.isAfter(untilDate)) {
+				break;
+			}
+			dates.add(date);
+		}
+		return dates;
+	}
+
+	// Far below the -1 - index placeholders of batch working copies, and never written to the database
+	public static int placeholderId(Integer seriesId) {
+		return Integer.MIN_VALUE + seriesId;
+	}
+
+	public Integer getSeriesId() {
+		return seriesId;
+	}
+
+	public BusyInterval getInterval() {
+		return interval;
+	}
+
+	public List<Integer> getCleanerIds() {
+		return cleanerIds;
+	}
+
+	public boolean occursOn(LocalDate date) {
+		return !date.isBefore(firstDate) && !date.isAfter(lastDate) && date.getDayOfWeek() == firstDate.getDayOfWeek()
+				&& ChronoUnit.WEEKS.between(firstDate, date) % intervalWeeks == 0;
+	}
+
+	public boolean isPendingOn(LocalDate date) {
+		return date.isAfter(materializedThrough) && occursOn(date);
+	}
+
+	// Occurrences not yet written as bookings, up to and including the date
+	public List<LocalDate> pendingDates(LocalDate through) {
+		List<LocalDate> dates = new ArrayList<>();
+		for (LocalDate date = firstDate; !date.isAfter(through) && !date.isAfter(lastDate); date = date.plusWeeks(intervalWeeks)) {
+			if (date.isAfter(materializedThrough)) {
+				dates.add(date);
+			}
+		}
+		return dates;
+	}
+}
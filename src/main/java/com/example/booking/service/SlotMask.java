@@ -0,0 +1,74 @@
+package com.example.booking.service;
+
+import com.example.booking.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cleaner's shift as a bitmask of 15-minute ticks, bit 0 being the tick starting at shift start.
+ */
+public final class SlotMask {
+
+	public static final int TICK_MINUTES = 15;
+	public static final int SHIFT_START_MINUTE = Util.cleanerShiftStart.toSecondOfDay() / 60;
+	public static final int SHIFT_END_MINUTE = Util.cleanerShiftEnd.toSecondOfDay() / 60;
+	public static final int SHIFT_TICKS = (SHIFT_END_MINUTE - SHIFT_START_MINUTE) / TICK_MINUTES;
+	public static final long SHIFT_MASK = (1L << SHIFT_TICKS) - 1;
+
+	private static final int BREAK_TICKS = CleanerSchedule.BREAK_MINUTES / TICK_MINUTES;
+
+	static {
+		if (SHIFT_TICKS >= Long.SIZE || (SHIFT_END_MINUTE - SHIFT_START_MINUTE) % TICK_MINUTES != 0) {
+			throw new IllegalStateException("Cleaner shift does not fit a 64-bit slot mask");
+		}
+	}
+
+	private SlotMask() {
+	}
+
+	public static boolean isAligned(int minute) {
+		return (minute - SHIFT_START_MINUTE) % TICK_MINUTES == 0
+				&& minute >= SHIFT_START_MINUTE && minute <= SHIFT_END_MINUTE;
+	}
+
+	public static boolean isAligned(int startMinute, int endMinute) {
+		return isAligned(startMinute) && isAligned(endMinute);
+	}
+
+	// Bits for the ticks covered by [startMinute, endMinute); both ends must be aligned
+	public static long range(int startMinute, int endMinute) {
+		int startTick = (startMinute - SHIFT_START_MINUTE) / TICK_MINUTES;
+		int endTick = (endMinute - SHIFT_START_MINUTE) / TICK_MINUTES;
+		if (endTick <= startTick) {
+			return 0L;
+		}
+		return ((1L << (endTick - startTick)) - 1) << startTick;
+	}
+
+	// Widens every busy run by the mandatory break on both sides
+	public static long withBreaks(long busyMask) {
+		long padded = busyMask;
+		for (int tick = 1; tick <= BREAK_TICKS; tick++) {
+			padded |= (busyMask << tick) | (busyMask >>> tick);
+		}
+		return padded & SHIFT_MASK;
+	}
+
+	// Free [from, to) minute pairs for every run of clear bits
+	public static List<int[]> freeSlots(long blockedMask) {
+		List<int[]> slots = new ArrayList<>();
+		long free = ~blockedMask & SHIFT_MASK;
+		while (free != 0) {
+			int fromTick = Long.numberOfTrailingZeros(free);
+			int length = Long.numberOfTrailingZeros(~(free >>> fromTick));
+			slots.add(new int[]{minuteOf(fromTick), minuteOf(fromTick + length)});
+			free &= ~(((1L << length) - 1) << fromTick);
+		}
+		return slots;
+	}
+
+	private static int minuteOf(int tick) {
+		return SHIFT_START_MINUTE + tick * TICK_MINUTES;
+	}
+}
@@ -0,0 +1,19 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerSnapshot;
+
+import java.util.List;
+
+// The smallest vehicle group that seats the team, leaving larger groups whole for larger bookings
+public class SmallestVehicleStrategy implements AllocationStrategy {
+
+	@Override
+	public String name() {
+		return "smallest-vehicle";
+	}
+
+	@Override
+	public List<CleanerSnapshot> select(VehicleTeams teams, DaySchedule daySchedule, int startMinute, int endMinute, int teamSize) {
+		return teams.bestFit(teamSize);
+	}
+}
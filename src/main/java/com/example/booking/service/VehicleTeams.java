@@ -0,0 +1,94 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Free cleaners of one time slot grouped by vehicle. Built in the same pass that filters the roster,
+ * so picking a team afterwards only walks the vehicles.
+ */
+public final class VehicleTeams {
+
+	public static final VehicleTeams EMPTY = new VehicleTeams(Collections.emptyMap());
+
+	// roster order is kept so equally sized vehicles are chosen deterministically
+	private final Map<Integer, List<CleanerSnapshot>> cleanersByVehicle;
+
+	private VehicleTeams(Map<Integer, List<CleanerSnapshot>> cleanersByVehicle) {
+		this.cleanersByVehicle = cleanersByVehicle;
+	}
+
+	public static VehicleTeams of(Collection<CleanerSnapshot> cleaners) {
+		Builder builder = builder();
+		cleaners.forEach(builder::add);
+		return builder.build();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public boolean isEmpty() {
+		return cleanersByVehicle.isEmpty();
+	}
+
+	public int vehicleCount() {
+		return cleanersByVehicle.size();
+	}
+
+	// One unmodifiable list of free cleaners per vehicle, in roster order
+	public Collection<List<CleanerSnapshot>> groups() {
+		return cleanersByVehicle.values();
+	}
+
+	// The smallest vehicle group that still seats the team, leaving larger groups whole for larger bookings
+	public List<CleanerSnapshot> smallestGroupOf(int teamSize) {
+		List<CleanerSnapshot> best = null;
+		for (List<CleanerSnapshot> group : cleanersByVehicle.values()) {
+			if (group.size() >= teamSize && (best == null || group.size() < best.size())) {
+				best = group;
+				if (best.size() == teamSize) {
+					break;
+				}
+			}
+		}
+		return best == null ? Collections.emptyList() : best;
+	}
+
+	// Exactly teamSize cleaners sharing one vehicle, or an empty list when no vehicle has enough
+	public List<CleanerSnapshot> bestFit(int teamSize) {
+		List<CleanerSnapshot> group = smallestGroupOf(teamSize);
+		return group.isEmpty() ? group : List.copyOf(group.subList(0, teamSize));
+	}
+
+	public static final class Builder {
+
+		private final Map<Integer, List<CleanerSnapshot>> cleanersByVehicle = new LinkedHashMap<>();
+
+		private Builder() {
+		}
+
+		// cleaners without a vehicle cannot travel to a booking, so they never join a team
+		public Builder add(CleanerSnapshot cleaner) {
+			if (cleaner.getVehicleId() != null) {
+				cleanersByVehicle.computeIfAbsent(cleaner.getVehicleId(), id -> new ArrayList<>()).add(cleaner);
+			}
+			return this;
+		}
+
+		public VehicleTeams build() {
+			if (cleanersByVehicle.isEmpty()) {
+				return EMPTY;
+			}
+			Map<Integer, List<CleanerSnapshot>> groups = new LinkedHashMap<>();
+			cleanersByVehicle.forEach((vehicleId, cleaners) -> groups.put(vehicleId, Collections.unmodifiableList(cleaners)));
+			return new VehicleTeams(Collections.unmodifiableMap(groups));
+		}
+	}
+}
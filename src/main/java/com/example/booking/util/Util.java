@@ -16,8 +16,12 @@ public class Util {
 	public static final LocalTime cleanerShiftStart = LocalTime.parse("08:00", formatter);
 	public static final LocalTime cleanerShiftEnd = LocalTime.parse("22:00", formatter);
 	
+	public static boolean isWorkingDay(LocalDate date) {
+		return !DayOfWeek.FRIDAY.equals(date.getDayOfWeek());
+	}
+	
 	public static void validateWorkingDay(LocalDate date) {
-		if (DayOfWeek.FRIDAY.equals(date.getDayOfWeek()))
+		if (!isWorkingDay(date))
 			throw new ValidationException("No cleaners working on Friday");
 	}
 	
@@ -0,0 +1,29 @@
+-- Schema as hibernate.ddl-auto=update left it; existing databases are baselined at this version instead of running it
+CREATE TABLE vehicle (
+	vehicle_id INT NOT NULL,
+	vehicle_name VARCHAR(255),
+	PRIMARY KEY (vehicle_id)
+);
+
+CREATE TABLE cleaner (
+	cleaner_id INT NOT NULL AUTO_INCREMENT,
+	cleaner_name VARCHAR(255),
+	vehicle_id INT,
+	PRIMARY KEY (cleaner_id),
+	CONSTRAINT fk_cleaner_vehicle FOREIGN KEY (vehicle_id) REFERENCES vehicle (vehicle_id)
+);
+
+CREATE TABLE booking (
+	booking_id INT NOT NULL AUTO_INCREMENT,
+	booking_date DATE,
+	booking_start_time TIME(6),
+	booking_duration INT,
+	PRIMARY KEY (booking_id)
+);
+
+CREATE TABLE cleaner_bookings (
+	booking_id INT NOT NULL,
+	cleaner_id INT NOT NULL,
+	CONSTRAINT fk_cleaner_bookings_booking FOREIGN KEY (booking_id) REFERENCES booking (booking_id),
+	CONSTRAINT fk_cleaner_bookings_cleaner FOREIGN KEY (cleaner_id) REFERENCES cleaner (cleaner_id)
+);
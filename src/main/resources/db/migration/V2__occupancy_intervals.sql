@@ -0,0 +1,12 @@
+-- Cleaner-days claimed by booking writes, new with this version: the legacy schema never had the table.
+-- Busy intervals start out empty and are backfilled by OccupancyRebuildJob on the next start
+CREATE TABLE cleaner_day_occupancy (
+	occupancy_id INT NOT NULL AUTO_INCREMENT,
+	cleaner_id INT,
+	occupancy_date DATE,
+	busy_intervals VARCHAR(1024) NOT NULL DEFAULT '',
+	version BIGINT,
+	PRIMARY KEY (occupancy_id),
+	-- Date first, so loading a whole day is a range scan of the unique index
+	CONSTRAINT uk_cleaner_day UNIQUE (occupancy_date, cleaner_id)
+);
@@ -0,0 +1,20 @@
+-- Every schedule load filters bookings by date, and allocation reads them in start-time order
+CREATE INDEX idx_booking_date_start ON booking (booking_date, booking_start_time);
+
+-- Legacy updateBooking could assign a cleaner to the same booking twice; collapse those pairs to one row first.
+-- Created, then filled, since CREATE TABLE ... SELECT is refused under enforce_gtid_consistency before MySQL 8.0.21
+CREATE TABLE cleaner_bookings_duplicate (
+	booking_id INT NOT NULL,
+	cleaner_id INT NOT NULL
+);
+INSERT INTO cleaner_bookings_duplicate (booking_id, cleaner_id)
+	SELECT booking_id, cleaner_id FROM cleaner_bookings GROUP BY booking_id, cleaner_id HAVING COUNT(*) > 1;
+DELETE FROM cleaner_bookings WHERE (booking_id, cleaner_id) IN (SELECT booking_id, cleaner_id FROM cleaner_bookings_duplicate);
+INSERT INTO cleaner_bookings (booking_id, cleaner_id) SELECT booking_id, cleaner_id FROM cleaner_bookings_duplicate;
+DROP TABLE cleaner_bookings_duplicate;
+
+-- A cleaner is assigned to a booking at most once; the key also serves the booking -> cleaners side of the join
+ALTER TABLE cleaner_bookings ADD CONSTRAINT pk_cleaner_bookings PRIMARY KEY (booking_id, cleaner_id);
+
+-- The cleaner -> bookings side, covering so findSlotsByBookingDateAndCleanerIds never reads the join table rows
+CREATE INDEX idx_cleaner_bookings_cleaner ON cleaner_bookings (cleaner_id, booking_id);
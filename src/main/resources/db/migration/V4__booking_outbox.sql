@@ -0,0 +1,13 @@
+-- Transactional outbox of booking changes, written in the booking transaction and tailed by every instance
+CREATE TABLE booking_outbox (
+	outbox_id BIGINT NOT NULL AUTO_INCREMENT,
+	event_type VARCHAR(32) NOT NULL,
+	booking_id INT NOT NULL,
+	origin VARCHAR(36) NOT NULL,
+	payload VARCHAR(2048) NOT NULL,
+	occurred_at DATETIME(6) NOT NULL,
+	PRIMARY KEY (outbox_id)
+);
+
+-- retention cleanup deletes by age
+CREATE INDEX idx_booking_outbox_occurred ON booking_outbox (occurred_at);
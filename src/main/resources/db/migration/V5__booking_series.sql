@@ -0,0 +1,30 @@
+-- Recurring bookings: the rule as requested, the team it keeps, and how far its occurrences already exist as bookings
+CREATE TABLE booking_series (
+	series_id INT NOT NULL AUTO_INCREMENT,
+	first_date DATE NOT NULL,
+	last_date DATE NOT NULL,
+	interval_weeks INT NOT NULL,
+	occurrence_count INT,
+	until_date DATE,
+	booking_start_time TIME(6) NOT NULL,
+	booking_duration INT NOT NULL,
+	materialized_through DATE NOT NULL,
+	version BIGINT,
+	PRIMARY KEY (series_id)
+);
+
+CREATE TABLE series_cleaners (
+	series_id INT NOT NULL,
+	cleaner_id INT NOT NULL,
+	CONSTRAINT pk_series_cleaners PRIMARY KEY (series_id, cleaner_id),
+	CONSTRAINT fk_series_cleaners_series FOREIGN KEY (series_id) REFERENCES booking_series (series_id),
+	CONSTRAINT fk_series_cleaners_cleaner FOREIGN KEY (cleaner_id) REFERENCES cleaner (cleaner_id)
+);
+
+-- Materialized occurrences point back at their series; the key stops two instances writing the same occurrence
+ALTER TABLE booking ADD COLUMN series_id INT;
+ALTER TABLE booking ADD CONSTRAINT fk_booking_series FOREIGN KEY (series_id) REFERENCES booking_series (series_id);
+ALTER TABLE booking ADD CONSTRAINT uk_booking_series_date UNIQUE (series_id, booking_date);
+
+-- SERIES_CREATED events belong to no single booking
+ALTER TABLE booking_outbox MODIFY booking_id INT NULL;
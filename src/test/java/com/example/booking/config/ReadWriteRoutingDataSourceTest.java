@@ -0,0 +1,28 @@
+package com.example.booking.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadWriteRoutingDataSourceTest {
+	
+	private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+	
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+	
+	@Test
+	void testLookupKey_readOnlyTransactionsGoToReplica() {
+		assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, routing.determineCurrentLookupKey());
+		
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, routing.determineCurrentLookupKey());
+		
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, routing.determineCurrentLookupKey());
+	}
+}
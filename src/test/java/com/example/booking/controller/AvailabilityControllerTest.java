@@ -2,26 +2,37 @@ package com.example.booking.controller;
 
 import com.example.booking.exception.GlobalExceptionHandler;
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSlotsDTO;
+import com.example.booking.model.DayAvailabilityDTO;
+import com.example.booking.model.NextSlotDTO;
 import com.example.booking.service.AvailabilityService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
@@ -31,6 +42,9 @@ public class AvailabilityControllerTest {
 	private AvailabilityController availabilityController;
 	@Mock
 	private AvailabilityService availabilityService;
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 	private MockMvc mockMvc;
 	
 	@BeforeEach
@@ -48,7 +62,7 @@ public class AvailabilityControllerTest {
 		int duration = 2;
 		
 		List<CleanerDTO> availableCleanerDtos = new ArrayList<>();
-		availableCleanerDtos.add(new CleanerDTO(1, "John Doe", new ArrayList<>(), new ArrayList<>()));
+		availableCleanerDtos.add(new CleanerDTO(1, "John Doe", new ArrayList<>()));
 		
 		when(availabilityService.getAvailableCleanerDtos(date, startTime, duration))
 				.thenReturn(availableCleanerDtos);
@@ -68,7 +82,7 @@ public class AvailabilityControllerTest {
 		LocalDate date = LocalDate.of(2024, 9, 5);
 		
 		List<CleanerDTO> availableCleanerDtos = new ArrayList<>();
-		availableCleanerDtos.add(new CleanerDTO(1, "John Doe", new ArrayList<>(), new ArrayList<>()));
+		availableCleanerDtos.add(new CleanerDTO(1, "John Doe", new ArrayList<>()));
 		
 		when(availabilityService.getAvailableCleanerDtos(date, null, null))
 				.thenReturn(availableCleanerDtos);
@@ -98,4 +112,86 @@ public class AvailabilityControllerTest {
 				.andExpect(status().isBadRequest())
 				.andExpect(content().string("No cleaners working on Friday"));
 	}
+	
+	@Test
+	void testStreamCleanersAvailabilityByDate_writesOneLinePerCleaner() throws Exception {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		when(availabilityService.streamAvailableCleaners(date, null, null)).thenReturn(Stream.of(
+				new CleanerSlotsDTO(1, "John Doe", List.of(new int[]{480, 570}, new int[]{870, 1320})),
+				new CleanerSlotsDTO(2, "Jane Doe", List.of(new int[]{480, 1320}))));
+		
+		MvcResult result = mockMvc.perform(get("/api/availability/check/stream")
+						.param("date", date.toString()))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string("{\"cleanerId\":1,\"cleanerName\":\"John Doe\",\"slots\":[[480,570],[870,1320]]}\n"
+						+ "{\"cleanerId\":2,\"cleanerName\":\"Jane Doe\",\"slots\":[[480,1320]]}\n"));
+	}
+	
+	@Test
+	void testFindNextAvailableSlot_returnsSlotOrNotFound() throws Exception {
+		LocalDate saturday = LocalDate.of(2030, 1, 5);
+		NextSlotDTO slot = new NextSlotDTO(saturday, LocalTime.of(14, 30), 2, 10,
+				List.of(new CleanerDTO(1, "John Doe", null)));
+		when(availabilityService.findNextSlot(saturday, 2, 1)).thenReturn(Optional.of(slot));
+		when(availabilityService.findNextSlot(saturday, 4, 3)).thenReturn(Optional.empty());
+		
+		mockMvc.perform(get("/api/availability/next")
+						.param("from", saturday.toString())
+						.param("duration", "2")
+						.param("cleanerCount", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.date").value("2030-01-05"))
+				.andExpect(jsonPath("$.startTime").value("14:30:00"))
+				.andExpect(jsonPath("$.cleaners[0].cleanerId").value(1));
+		mockMvc.perform(get("/api/availability/next")
+						.param("from", saturday.toString())
+						.param("duration", "4")
+						.param("cleanerCount", "3"))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	void testCheckCleanersAvailabilityByRange_returnsOneEntryPerDay() throws Exception {
+		LocalDate thursday = LocalDate.of(2024, 9, 12);
+		LocalDate saturday = LocalDate.of(2024, 9, 14);
+		CleanerDTO john = new CleanerDTO(1, "John Doe", new ArrayList<>());
+		
+		when(availabilityService.getAvailabilityRange(thursday, saturday)).thenReturn(Stream.of(
+				new DayAvailabilityDTO(thursday, List.of(john)),
+				new DayAvailabilityDTO(saturday, List.of(john))));
+		
+		mockMvc.perform(get("/api/availability/range")
+						.param("from", thursday.toString())
+						.param("to", saturday.toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].date").value("2024-09-12"))
+				.andExpect(jsonPath("$[1].date").value("2024-09-14"))
+				.andExpect(jsonPath("$[1].cleaners[0].cleanerName").value("John Doe"));
+	}
+	
+	@Test
+	void testCheckCleanersAvailabilityByRange_failingDayAnswersWithAnErrorStatus() throws Exception {
+		LocalDate thursday = LocalDate.of(2024, 9, 12);
+		LocalDate saturday = LocalDate.of(2024, 9, 14);
+		CleanerDTO john = new CleanerDTO(1, "John Doe", new ArrayList<>());
+		Stream<DayAvailabilityDTO> days = Stream.of(thursday, saturday).map(date -> {
+			if (date.equals(saturday)) {
+				throw new ValidationException("Saturday could not be computed");
+			}
+			return new DayAvailabilityDTO(date, List.of(john));
+		});
+		when(availabilityService.getAvailabilityRange(thursday, saturday)).thenReturn(days);
+		
+		mockMvc.perform(get("/api/availability/range")
+						.param("from", thursday.toString())
+						.param("to", saturday.toString()))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Saturday could not be computed"));
+	}
 }
@@ -1,6 +1,9 @@
 package com.example.booking.controller;
 
+import com.example.booking.model.BatchBookingResultDTO;
 import com.example.booking.model.BookingDTO;
+import com.example.booking.model.BookingSeriesDTO;
+import com.example.booking.service.BookingSeriesService;
 import com.example.booking.service.BookingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ValidationException;
@@ -15,6 +18,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -34,6 +39,9 @@ public class BookingControllerTest {
 	@MockBean
 	private BookingService bookingService;
 	
+	@MockBean
+	private BookingSeriesService bookingSeriesService;
+	
 	@Autowired
 	private ObjectMapper objectMapper;
 	
@@ -71,6 +79,114 @@ public class BookingControllerTest {
 		verify(bookingService, times(1)).createBooking(any(BookingDTO.class));
 	}
 	
+	@Test
+	public void testCreateBookings_ReturnsPerItemResults() throws Exception {
+		BookingDTO bookingDto = BookingDTO.builder()
+				.bookingDate(LocalDate.of(2024, 9, 10))
+				.bookingStartTime(LocalTime.of(9, 0))
+				.bookingDuration(2)
+				.cleanerCount(2)
+				.build();
+		
+		List<BatchBookingResultDTO> results = List.of(
+				BatchBookingResultDTO.builder().index(0).status(BatchBookingResultDTO.Status.CREATED).booking(bookingDto).build(),
+				BatchBookingResultDTO.builder().index(1).status(BatchBookingResultDTO.Status.REJECTED)
+						.error("Not enough cleaners available for requested time").build());
+		when(bookingService.createBookings(anyList())).thenReturn(results);
+		
+		mockMvc.perform(post("/api/bookings/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(List.of(bookingDto, bookingDto))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value("CREATED"))
+				.andExpect(jsonPath("$[0].booking.bookingDate").value("2024-09-10"))
+				.andExpect(jsonPath("$[1].status").value("REJECTED"))
+				.andExpect(jsonPath("$[1].error").value("Not enough cleaners available for requested time"));
+		
+		verify(bookingService, times(1)).createBookings(anyList());
+	}
+	
+	@Test
+	public void testCreateBookings_RejectsEmptyAndNullContainingBatches() throws Exception {
+		mockMvc.perform(post("/api/bookings/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("A batch must contain at least one booking"));
+		
+		mockMvc.perform(post("/api/bookings/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[null]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("A batch may not contain null bookings"));
+		
+		verify(bookingService, never()).createBookings(anyList());
+	}
+	
+	@Test
+	public void testCreateBookings_RejectsOversizedBatch() throws Exception {
+		BookingDTO bookingDto = BookingDTO.builder()
+				.bookingDate(LocalDate.of(2024, 9, 10))
+				.bookingStartTime(LocalTime.of(9, 0))
+				.bookingDuration(2)
+				.cleanerCount(1)
+				.build();
+		
+		mockMvc.perform(post("/api/bookings/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(Collections.nCopies(501, bookingDto))))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("A batch may contain at most 500 bookings"));
+		
+		verify(bookingService, never()).createBookings(anyList());
+	}
+	
+	@Test
+	public void testCreateSeries_Success() throws Exception {
+		BookingSeriesDTO seriesDto = BookingSeriesDTO.builder()
+				.startDate(LocalDate.of(2024, 9, 14))
+				.intervalWeeks(2)
+				.occurrences(3)
+				.bookingStartTime(LocalTime.of(9, 0))
+				.bookingDuration(2)
+				.cleanerCount(1)
+				.build();
+		BookingSeriesDTO createdSeries = BookingSeriesDTO.builder()
+				.seriesId(4)
+				.occurrenceDates(List.of(LocalDate.of(2024, 9, 14), LocalDate.of(2024, 9, 28), LocalDate.of(2024, 10, 12)))
+				.build();
+		when(bookingSeriesService.createSeries(any(BookingSeriesDTO.class))).thenReturn(createdSeries);
+		
+		mockMvc.perform(post("/api/bookings/series")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(seriesDto)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.seriesId").value(4))
+				.andExpect(jsonPath("$.occurrenceDates[2]").value("2024-10-12"));
+		
+		verify(bookingSeriesService, times(1)).createSeries(any(BookingSeriesDTO.class));
+	}
+	
+	@Test
+	public void testCreateSeries_RejectsBothEnds() throws Exception {
+		BookingSeriesDTO seriesDto = BookingSeriesDTO.builder()
+				.startDate(LocalDate.of(2024, 9, 14))
+				.intervalWeeks(1)
+				.occurrences(3)
+				.untilDate(LocalDate.of(2024, 12, 31))
+				.bookingStartTime(LocalTime.of(9, 0))
+				.bookingDuration(2)
+				.cleanerCount(1)
+				.build();
+		
+		mockMvc.perform(post("/api/bookings/series")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(seriesDto)))
+				.andExpect(status().isBadRequest());
+		
+		verify(bookingSeriesService, never()).createSeries(any());
+	}
+	
 	@Test
 	public void testUpdateBooking_NotEnoughCleaners() throws Exception {
 		// Given: BookingDto to send with the update request
@@ -0,0 +1,50 @@
+package com.example.booking.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCounterTest {
+	
+	private final QueryCounter queryCounter = new QueryCounter();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	
+	@AfterEach
+	void tearDown() {
+		QueryCounter.stop();
+		executor.shutdownNow();
+	}
+	
+	@Test
+	void testPropagate_countsStatementsOfHandedOffTasks() {
+		AtomicInteger queries = QueryCounter.start();
+		queryCounter.inspect("select 1");
+		
+		Runnable task = QueryCounter.propagate(() -> queryCounter.inspect("select 2"));
+		QueryCounter.stop();
+		CompletableFuture.runAsync(task, executor).join();
+		// the worker thread no longer counts once the task is done
+		CompletableFuture.runAsync(() -> queryCounter.inspect("select 3"), executor).join();
+		
+		assertEquals(2, queries.get());
+	}
+	
+	@Test
+	void testPropagate_restoresTheCountOfACallerRunningTheTask() {
+		AtomicInteger outer = QueryCounter.start();
+		Runnable task = QueryCounter.propagate(() -> queryCounter.inspect("select 1"));
+		AtomicInteger inner = QueryCounter.start();
+		
+		task.run();
+		queryCounter.inspect("select 2");
+		
+		assertEquals(1, outer.get());
+		assertEquals(1, inner.get());
+	}
+}
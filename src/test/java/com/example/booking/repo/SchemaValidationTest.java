@@ -0,0 +1,41 @@
+package com.example.booking.repo;
+
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The Flyway migrations on H2 in MySQL mode, validated by Hibernate with the MySQL dialect the application
+// runs with: an entity mapping drifting from the migrations fails the context before any test runs
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:schema;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SchemaValidationTest {
+	
+	@Autowired
+	private OutboxEventRepository outboxRepo;
+	
+	@Test
+	void testOutboxEvent_typeRoundTripsThroughItsVarcharColumn() {
+		OutboxEvent saved = outboxRepo.saveAndFlush(OutboxEvent.builder()
+				.eventType(BookingEventDTO.Type.SERIES_CREATED)
+				.origin("instance")
+				.payload("{}")
+				.occurredAt(LocalDateTime.now())
+				.build());
+		
+		assertEquals(BookingEventDTO.Type.SERIES_CREATED, outboxRepo.findById(saved.getOutboxId()).orElseThrow().getEventType());
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.booking.service;
+
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.example.booking.service.CleanerSchedule.minuteOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AllocationStrategyTest {
+	
+	private final LocalDate date = LocalDate.of(2024, 9, 10);
+	private final CleanerSnapshot vanOneFirst = cleaner(1, 10);
+	private final CleanerSnapshot vanOneSecond = cleaner(2, 10);
+	private final CleanerSnapshot vanOneThird = cleaner(3, 10);
+	private final CleanerSnapshot vanTwoFirst = cleaner(4, 20);
+	private final CleanerSnapshot vanTwoSecond = cleaner(5, 20);
+	private final VehicleTeams teams = VehicleTeams.of(List.of(vanOneFirst, vanOneSecond, vanOneThird, vanTwoFirst, vanTwoSecond));
+	
+	@Test
+	void testFirstFitAndSmallestVehicle_ignoreTheDay() {
+		DaySchedule day = DaySchedule.of(date, List.of());
+		
+		assertEquals(List.of(vanOneFirst, vanOneSecond), select(new FirstFitStrategy(), day, 2));
+		assertEquals(List.of(vanTwoFirst, vanTwoSecond), select(new SmallestVehicleStrategy(), day, 2));
+		assertTrue(select(new FirstFitStrategy(), day, 4).isEmpty());
+	}
+	
+	@Test
+	void testBestGap_prefersTightGapsAndAvoidsStrandingShortPieces() {
+		// cleaner 3 is booked right after the slot; cleaner 4 would be left a 60 minute piece before it
+		DaySchedule day = DaySchedule.of(date, List.of())
+				.withBooking(new BusyInterval(1, minute(16, 30), minute(18, 30)), List.of(3))
+				.withBooking(new BusyInterval(2, minute(8, 0), minute(12, 0)), List.of(4));
+		
+		assertEquals(List.of(vanOneThird, vanOneFirst), select(new BestGapStrategy(), day, 2));
+		assertEquals(List.of(vanOneThird), select(new BestGapStrategy(), day, 1));
+	}
+	
+	@Test
+	void testLeastLoaded_picksCleanersWithFewestBookedMinutes() {
+		DaySchedule day = DaySchedule.of(date, List.of())
+				.withBooking(new BusyInterval(1, minute(8, 0), minute(10, 0)), List.of(1))
+				.withBooking(new BusyInterval(2, minute(18, 0), minute(20, 0)), List.of(4, 5));
+		
+		assertEquals(List.of(vanOneSecond, vanOneThird), select(new LeastLoadedStrategy(), day, 2));
+		// equal load goes to the smaller vehicle
+		assertEquals(List.of(vanTwoFirst, vanTwoSecond), select(new LeastLoadedStrategy(), DaySchedule.of(date, List.of()), 2));
+	}
+	
+	@Test
+	void testNamed_resolvesEveryStrategyAndRejectsUnknownNames() {
+		AllocationStrategy.all().forEach(strategy -> assertEquals(strategy.name(), AllocationStrategy.named(strategy.name()).name()));
+		assertThrows(IllegalArgumentException.class, () -> AllocationStrategy.named("random"));
+	}
+	
+	private List<CleanerSnapshot> select(AllocationStrategy strategy, DaySchedule day, int teamSize) {
+		return strategy.select(teams, day, minute(14, 0), minute(16, 0), teamSize);
+	}
+	
+	private static int minute(int hour, int minute) {
+		return minuteOf(LocalTime.of(hour, minute));
+	}
+	
+	private static CleanerSnapshot cleaner(int cleanerId, int vehicleId) {
+		return new CleanerSnapshot(cleanerId, "Cleaner " + cleanerId, vehicleId, "Van " + vehicleId);
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.booking.service;
+
+import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvailabilityCacheTest {
+	
+	private final AvailabilityCache availabilityCache = new AvailabilityCache(100, Duration.ofSeconds(30));
+	private final LocalDate date = LocalDate.of(2024, 9, 5);
+	private final LocalTime startTime = LocalTime.of(10, 0);
+	private final List<CleanerSnapshot> roster = List.of(new CleanerSnapshot(11, "John Doe", 10, "Van 1"));
+	private final AtomicInteger loads = new AtomicInteger();
+	private final Supplier<List<CleanerDTO>> loader = () -> {
+		loads.incrementAndGet();
+		return List.of(new CleanerDTO(11, "John Doe", new ArrayList<>()));
+	};
+	
+	@Test
+	void testGet_servesRepeatedChecksFromCache() {
+		DaySchedule daySchedule = DaySchedule.of(date, new ArrayList<>());
+		
+		List<CleanerDTO> first = availabilityCache.get(date, startTime, 2, daySchedule, roster, loader);
+		List<CleanerDTO> second = availabilityCache.get(date, startTime, 2, daySchedule, roster, loader);
+		availabilityCache.get(date, startTime, 4, daySchedule, roster, loader);
+		
+		assertSame(first, second);
+		assertEquals(2, loads.get());
+		assertEquals(1, availabilityCache.getStats().hitCount());
+		assertEquals(2, availabilityCache.getStats().missCount());
+	}
+	
+	@Test
+	void testGet_recomputesWhenDayScheduleChanged() {
+		availabilityCache.get(date, startTime, 2, DaySchedule.of(date, new ArrayList<>()), roster, loader);
+		
+		availabilityCache.get(date, startTime, 2, DaySchedule.of(date, new ArrayList<>()), roster, loader);
+		
+		assertEquals(2, loads.get());
+		assertEquals(0, availabilityCache.getStats().hitCount());
+	}
+	
+	@Test
+	void testEvict_dropsOnlyThatDate() {
+		DaySchedule daySchedule = DaySchedule.of(date, new ArrayList<>());
+		DaySchedule nextDaySchedule = DaySchedule.of(date.plusDays(1), new ArrayList<>());
+		availabilityCache.get(date, startTime, 2, daySchedule, roster, loader);
+		availabilityCache.get(date, null, null, daySchedule, roster, loader);
+		availabilityCache.get(date.plusDays(1), startTime, 2, nextDaySchedule, roster, loader);
+		
+		availabilityCache.evict(date);
+		
+		assertEquals(1, availabilityCache.getSize());
+		assertEquals(1, availabilityCache.getDateEvictions());
+		availabilityCache.get(date.plusDays(1), startTime, 2, nextDaySchedule, roster, loader);
+		assertEquals(3, loads.get());
+	}
+}
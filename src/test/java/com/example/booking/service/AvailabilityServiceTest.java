@@ -3,21 +3,33 @@ package com.example.booking.service;
 
 import com.example.booking.entity.Booking;
 import com.example.booking.entity.Cleaner;
+import com.example.booking.entity.Vehicle;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.CleanerBookingSlot;
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSlotsDTO;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.model.DayAvailabilityDTO;
+import com.example.booking.model.NextSlotDTO;
 import com.example.booking.model.TimeslotDTO;
 import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
 import com.example.booking.repo.CleanerRepository;
 import com.example.booking.util.Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -27,7 +39,6 @@ import static org.mockito.Mockito.*;
 
 public class AvailabilityServiceTest {
 	
-	@InjectMocks
 	private AvailabilityService availabilityService;
 	
 	@Mock
@@ -36,9 +47,18 @@ public class AvailabilityServiceTest {
 	@Mock
 	private BookingRepository bookingRepo;
 	
+	@Mock
+	private CleanerDayOccupancyRepository occupancyRepo;
+	
+	@Mock
+	private BookingSeriesRepository seriesRepo;
+	
 	@BeforeEach
 	void setUp() {
 		MockitoAnnotations.openMocks(this);
+		availabilityService = new AvailabilityService(new CleanerRoster(cleanerRepo, Duration.ofMinutes(10)),
+				new ScheduleIndex(bookingRepo, occupancyRepo, new SeriesCalendar(seriesRepo, Duration.ofMinutes(10))),
+				new AvailabilityCache(100, Duration.ofSeconds(30)), Runnable::run, new BookingMetrics(new SimpleMeterRegistry()));
 	}
 	
 	@Test
@@ -58,10 +78,10 @@ public class AvailabilityServiceTest {
 						.build()
 		);
 		
-		when(cleanerRepo.findAll()).thenReturn(cleaners);
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(cleaners));
 		
 		List<Booking> bookings = new ArrayList<>();
-		when(bookingRepo.findByBookingDateAndCleanerId(any(), anyInt())).thenReturn(bookings);
+		when(bookingRepo.findSlotsByBookingDate(any())).thenReturn(slotsOf(bookings));
 		
 		List<CleanerDTO> availableCleanerDtos = availabilityService.getAvailableCleanerDtos(date, startTime, duration);
 		
@@ -69,6 +89,168 @@ public class AvailabilityServiceTest {
 		assertEquals(2, availableCleanerDtos.size());
 	}
 	
+	@Test
+	void testGetAvailableCleanerDtoList_loadsDayBookingsOnce() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+		Cleaner jane = Cleaner.builder().cleanerId(22).cleanerName("Jane Doe").build();
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(Arrays.asList(john, jane)));
+		
+		List<Booking> bookings = new ArrayList<>();
+		bookings.add(Booking.builder()
+				.bookingId(33)
+				.bookingDate(date)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleaners(List.of(john))
+				.build());
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(slotsOf(bookings));
+		
+		List<CleanerDTO> availableCleanerDtos = availabilityService.getAvailableCleanerDtos(date, LocalTime.of(10, 0), 2);
+		
+		assertEquals(1, availableCleanerDtos.size());
+		assertEquals(22, availableCleanerDtos.get(0).getCleanerId());
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
+	@Test
+	void testGetAvailabilityRange_loadsRangeOnceAndSkipsFridays() {
+		LocalDate thursday = LocalDate.of(2024, 9, 12);
+		LocalDate saturday = LocalDate.of(2024, 9, 14);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(List.of(john)));
+		when(bookingRepo.findSlotsByBookingDateBetween(thursday, saturday)).thenReturn(slotsOf(List.of(Booking.builder()
+				.bookingId(33)
+				.bookingDate(saturday)
+				.bookingStartTime(LocalTime.of(8, 0))
+				.bookingDuration(4)
+				.cleaners(List.of(john))
+				.build())));
+		
+		List<DayAvailabilityDTO> days = availabilityService.getAvailabilityRange(thursday, saturday).toList();
+		
+		assertEquals(List.of(thursday, saturday), days.stream().map(DayAvailabilityDTO::getDate).toList());
+		assertEquals(1, days.get(0).getCleaners().get(0).getSlotsAvailable().size());
+		assertEquals(LocalDateTime.of(saturday, LocalTime.of(12, 30)), days.get(1).getCleaners().get(0).getSlotsAvailable().get(0).getFrom());
+		verify(bookingRepo, times(1)).findSlotsByBookingDateBetween(thursday, saturday);
+		verify(bookingRepo, never()).findSlotsByBookingDate(any());
+	}
+	
+	@Test
+	void testGetAvailabilityRange_closingStreamCancelsPendingDays() {
+		LocalDate thursday = LocalDate.of(2024, 9, 12);
+		LocalDate saturday = LocalDate.of(2024, 9, 14);
+		List<Runnable> pending = new ArrayList<>();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		availabilityService = new AvailabilityService(new CleanerRoster(cleanerRepo, Duration.ofMinutes(10)),
+				new ScheduleIndex(bookingRepo, occupancyRepo, new SeriesCalendar(seriesRepo, Duration.ofMinutes(10))),
+				new AvailabilityCache(100, Duration.ofSeconds(30)), pending::add, new BookingMetrics(registry));
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(List.of(Cleaner.builder().cleanerId(11).cleanerName("John Doe").build())));
+		when(bookingRepo.findSlotsByBookingDateBetween(thursday, saturday)).thenReturn(slotsOf(List.of()));
+		
+		availabilityService.getAvailabilityRange(thursday, saturday).close();
+		pending.forEach(Runnable::run);
+		
+		assertEquals(2, pending.size());
+		assertEquals(0, registry.get("booking.availability.slots.computed").summary().count());
+	}
+	
+	@Test
+	void testStreamAvailableCleaners_yieldsMinuteSlotsOfFreeCleanersOnly() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+		Cleaner jane = Cleaner.builder().cleanerId(22).cleanerName("Jane Doe").build();
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(List.of(john, jane)));
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(slotsOf(List.of(Booking.builder()
+				.bookingId(33)
+				.bookingDate(date)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleaners(List.of(john))
+				.build())));
+		
+		List<CleanerSlotsDTO> cleaners = availabilityService.streamAvailableCleaners(date, LocalTime.of(10, 0), 2).toList();
+		
+		assertEquals(1, cleaners.size());
+		assertEquals(22, cleaners.get(0).getCleanerId());
+		assertArrayEquals(new int[]{480, 1320}, cleaners.get(0).getSlots().get(0));
+		assertEquals(2, availabilityService.streamAvailableCleaners(date, null, null).count());
+	}
+	
+	@Test
+	void testFindNextSlot_skipsFridayAndSweepsToEarliestCommonStart() {
+		LocalDate friday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY));
+		LocalDate saturday = friday.plusDays(1);
+		Vehicle van = new Vehicle();
+		van.setVehicleId(10);
+		Vehicle bike = new Vehicle();
+		bike.setVehicleId(20);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").vehicle(van).build();
+		Cleaner jane = Cleaner.builder().cleanerId(22).cleanerName("Jane Doe").vehicle(van).build();
+		Cleaner solo = Cleaner.builder().cleanerId(33).cleanerName("Solo").vehicle(bike).build();
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(List.of(john, jane, solo)));
+		when(bookingRepo.findSlotsByBookingDateBetween(any(), any())).thenReturn(slotsOf(List.of(
+				Booking.builder().bookingId(1).bookingDate(saturday).bookingStartTime(LocalTime.of(8, 0)).bookingDuration(4).cleaners(List.of(john)).build(),
+				Booking.builder().bookingId(2).bookingDate(saturday).bookingStartTime(LocalTime.of(12, 0)).bookingDuration(2).cleaners(List.of(jane)).build())));
+		
+		NextSlotDTO slot = availabilityService.findNextSlot(friday, 2, 2).orElseThrow();
+		
+		assertEquals(saturday, slot.getDate());
+		assertEquals(LocalTime.of(14, 30), slot.getStartTime());
+		assertEquals(10, slot.getVehicleId());
+		assertEquals(List.of(11, 22), slot.getCleaners().stream().map(CleanerDTO::getCleanerId).toList());
+		assertEquals(LocalTime.of(8, 0), availabilityService.findNextSlot(friday, 2, 1).orElseThrow().getStartTime());
+		assertTrue(availabilityService.findNextSlot(friday, 2, 3).isEmpty());
+		assertThrows(ValidationException.class, () -> availabilityService.findNextSlot(friday, 3, 1));
+	}
+	
+	@Test
+	void testGetAvailabilityRange_endBeforeStart_throwsValidationException() {
+		LocalDate date = LocalDate.of(2024, 9, 12);
+		
+		assertThrows(ValidationException.class, () -> availabilityService.getAvailabilityRange(date, date.minusDays(1)));
+	}
+	
+	@Test
+	void testGetAvailableCleaners_usesOnlyTargetDayBookings() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+		Cleaner jane = Cleaner.builder().cleanerId(22).cleanerName("Jane Doe").build();
+		when(cleanerRepo.findAllSnapshots()).thenReturn(snapshotsOf(Arrays.asList(john, jane)));
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(slotsOf(List.of(Booking.builder()
+				.bookingId(33)
+				.bookingDate(date)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleaners(List.of(jane))
+				.build())));
+		
+		List<CleanerSnapshot> availableCleaners = availabilityService.getAvailableCleaners(date, LocalTime.of(11, 0), 2);
+		
+		assertEquals(List.of(CleanerSnapshot.of(john)), availableCleaners);
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
+	@Test
+	void testIsCleanerAvailableForUpdate_ignoresBookingBeingUpdated() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+		Booking booking = Booking.builder()
+				.bookingId(33)
+				.bookingDate(date)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleaners(List.of(john))
+				.build();
+		Booking otherBooking = Booking.builder().bookingId(44).build();
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(slotsOf(List.of(booking)));
+		
+		assertTrue(availabilityService.isCleanerAvailableForUpdate(john, date, LocalTime.of(11, 0), 2, booking));
+		assertFalse(availabilityService.isCleanerAvailableForUpdate(john, date, LocalTime.of(11, 0), 2, otherBooking));
+		assertTrue(availabilityService.isCleanerAvailableForUpdate(john, date, LocalTime.of(12, 30), 2, otherBooking));
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
 	@Test
 	void testValidateCleanerWorkingDay_withFriday_throwsValidationException() {
 		LocalDate friday = LocalDate.of(2024, 9, 13); // This is a Friday
@@ -117,6 +299,19 @@ public class AvailabilityServiceTest {
 		assertEquals(2, availableSlots.size()); // Expected 2 available slots
 	}
 	
+	@Test
+	void testGetAvailableSlots_leavesCallerListUnsorted() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		List<Booking> bookings = new ArrayList<>(List.of(
+				Booking.builder().bookingId(44).bookingDate(date).bookingStartTime(LocalTime.of(12, 0)).bookingDuration(2).build(),
+				Booking.builder().bookingId(33).bookingDate(date).bookingStartTime(LocalTime.of(9, 0)).bookingDuration(2).build()));
+		
+		List<TimeslotDTO> availableSlots = availabilityService.getAvailableSlots(date, bookings);
+		
+		assertEquals(List.of(44, 33), bookings.stream().map(Booking::getBookingId).toList());
+		assertEquals(LocalDateTime.of(date, LocalTime.of(8, 30)), availableSlots.get(0).getTo());
+	}
+	
 	@Test
 	void testHasAvailableSlot_withMatchingSlot() {
 		List<TimeslotDTO> slots = new ArrayList<>();
@@ -128,4 +323,30 @@ public class AvailabilityServiceTest {
 		boolean result = availabilityService.isSlotAvailable(slots, bookingStart, bookingEnd);
 		assertTrue(result);
 	}
+	
+	@Test
+	void testHasAvailableSlot_searchesSortedSlots() {
+		LocalDate date = LocalDate.of(2024, 9, 5);
+		List<TimeslotDTO> slots = List.of(
+				new TimeslotDTO(LocalDateTime.of(date, LocalTime.of(8, 0)), LocalDateTime.of(date, LocalTime.of(9, 0))),
+				new TimeslotDTO(LocalDateTime.of(date, LocalTime.of(11, 30)), LocalDateTime.of(date, LocalTime.of(14, 0))),
+				new TimeslotDTO(LocalDateTime.of(date, LocalTime.of(16, 30)), LocalDateTime.of(date, LocalTime.of(22, 0))));
+		
+		assertTrue(availabilityService.isSlotAvailable(slots, LocalDateTime.of(date, LocalTime.of(12, 0)), LocalDateTime.of(date, LocalTime.of(14, 0))));
+		assertTrue(availabilityService.isSlotAvailable(slots, LocalDateTime.of(date, LocalTime.of(16, 30)), LocalDateTime.of(date, LocalTime.of(20, 30))));
+		assertFalse(availabilityService.isSlotAvailable(slots, LocalDateTime.of(date, LocalTime.of(13, 0)), LocalDateTime.of(date, LocalTime.of(15, 0))));
+		assertFalse(availabilityService.isSlotAvailable(slots, LocalDateTime.of(date, LocalTime.of(7, 0)), LocalDateTime.of(date, LocalTime.of(8, 30))));
+	}
+	
+	private static List<CleanerSnapshot> snapshotsOf(List<Cleaner> cleaners) {
+		return cleaners.stream().map(CleanerSnapshot::of).toList();
+	}
+	
+	// The flat rows the repository projects out of these bookings, one per booked cleaner
+	private static List<CleanerBookingSlot> slotsOf(List<Booking> bookings) {
+		return bookings.stream()
+				.flatMap(booking -> booking.getCleaners().stream().map(cleaner -> new CleanerBookingSlot(cleaner.getCleanerId(),
+						booking.getBookingId(), booking.getBookingDate(), booking.getBookingStartTime(), booking.getBookingDuration())))
+				.toList();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import com.example.booking.repo.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BookingEventStreamTest {
+
+	@Mock
+	private OutboxEventRepository outboxRepo;
+	@Mock
+	private BookingOutbox bookingOutbox;
+	private final List<Runnable> tasks = new ArrayList<>();
+	private BookingEventStream eventStream;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		eventStream = new BookingEventStream(outboxRepo, bookingOutbox, tasks::add);
+		ReflectionTestUtils.setField(eventStream, "replayPageSize", 2);
+		when(bookingOutbox.decode(any())).thenAnswer(invocation -> event(invocation.<OutboxEvent>getArgument(0).getOutboxId()));
+	}
+
+	@Test
+	void testSubscribe_replaysPageByPageOffTheRequestThreadAndQueuesLiveEventsBehind() {
+		when(outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(5L, Limit.of(2))).thenReturn(List.of(outboxEvent(6), outboxEvent(7)));
+		when(outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(7L, Limit.of(2))).thenReturn(List.of(outboxEvent(8)));
+
+		eventStream.subscribe(5L);
+		eventStream.onBookingEvent(event(9));
+
+		// nothing is read on the request thread, and the live event waits for the replay task
+		verify(outboxRepo, never()).findByOutboxIdGreaterThanOrderByOutboxIdAsc(any(), any());
+		assertEquals(1, tasks.size());
+
+		tasks.remove(0).run();
+
+		verify(outboxRepo, times(1)).findByOutboxIdGreaterThanOrderByOutboxIdAsc(5L, Limit.of(2));
+		verify(outboxRepo, times(1)).findByOutboxIdGreaterThanOrderByOutboxIdAsc(7L, Limit.of(2));
+		verify(bookingOutbox, times(3)).decode(any());
+		assertTrue(tasks.isEmpty());
+		assertEquals(1, eventStream.getSubscriberCount());
+
+		// caught up, so the next live event is handed to the executor straight away
+		eventStream.onBookingEvent(event(10));
+		assertEquals(1, tasks.size());
+	}
+
+	@Test
+	void testOnBookingEvent_dropsASubscriberFallingTooFarBehind() {
+		ReflectionTestUtils.setField(eventStream, "bufferSize", 2);
+		eventStream.subscribe(null);
+
+		eventStream.onBookingEvent(event(1));
+		eventStream.onBookingEvent(event(2));
+		eventStream.onBookingEvent(event(3));
+
+		assertEquals(0, eventStream.getSubscriberCount());
+	}
+
+	private static OutboxEvent outboxEvent(long outboxId) {
+		return OutboxEvent.builder().outboxId(outboxId).build();
+	}
+
+	private static BookingEventDTO event(long eventId) {
+		return BookingEventDTO.builder()
+				.eventId(eventId)
+				.type(BookingEventDTO.Type.BOOKING_CREATED)
+				.bookingId((int) eventId)
+				.build();
+	}
+}
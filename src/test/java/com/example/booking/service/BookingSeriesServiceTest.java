@@ -0,0 +1,198 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.BookingSeriesDTO;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import com.example.booking.repo.CleanerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BookingSeriesServiceTest {
+
+	@Mock
+	private BookingSeriesRepository seriesRepo;
+	@Mock
+	private BookingRepository bookingRepo;
+	@Mock
+	private CleanerRepository cleanerRepo;
+	@Mock
+	private AvailabilityService availabilityService;
+	@Spy
+	private AllocationStrategy allocationStrategy = new SmallestVehicleStrategy();
+	@Mock
+	private ScheduleIndex scheduleIndex;
+	@Mock
+	private AvailabilityCache availabilityCache;
+	@Mock
+	private SeriesCalendar seriesCalendar;
+	@Mock
+	private SeriesMaterializer seriesMaterializer;
+	@Spy
+	private BookingLocks bookingLocks = new BookingLocks(16);
+	@Mock
+	private CleanerDayGuard cleanerDayGuard;
+	@Mock
+	private BookingOutbox bookingOutbox;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@Spy
+	private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+	@InjectMocks
+	private BookingSeriesService bookingSeriesService;
+
+	private final LocalDate saturday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(availabilityService.getCleaners()).thenReturn(List.of(new CleanerSnapshot(11, "John Doe", 10, "Van 1")));
+		when(scheduleIndex.getDays(anyCollection())).thenAnswer(invocation -> {
+			Map<LocalDate, DaySchedule> days = new TreeMap<>();
+			for (LocalDate date : invocation.<Collection<LocalDate>>getArgument(0)) {
+				days.put(date, DaySchedule.of(date, Map.of()));
+			}
+			return days;
+		});
+		when(seriesMaterializer.horizonEnd()).thenReturn(saturday.plusDays(14));
+		when(cleanerRepo.getReferenceById(11)).thenReturn(Cleaner.builder().cleanerId(11).build());
+		when(seriesRepo.save(any(BookingSeries.class))).thenAnswer(invocation -> {
+			BookingSeries series = invocation.getArgument(0);
+			series.setSeriesId(9);
+			return series;
+		});
+	}
+
+	@Test
+	void testCreateSeries_writesTheHorizonAndChecksLaterOccurrencesInOneQuery() {
+		BookingSeriesDTO created = bookingSeriesService.createSeries(weekly(6));
+
+		assertEquals(9, created.getSeriesId());
+		assertEquals(6, created.getOccurrenceDates().size());
+		assertEquals(11, created.getCleaners().get(0).getCleanerId());
+		List<LocalDate> dueDates = List.of(saturday, saturday.plusWeeks(1), saturday.plusWeeks(2));
+		for (LocalDate date : dueDates) {
+			verify(cleanerDayGuard, times(1)).claim(eq(date), eq(List.of(11)), eq(600), eq(720), isNull());
+		}
+		verify(cleanerDayGuard, never()).claim(eq(saturday.plusWeeks(3)), any(), anyInt(), anyInt(), any());
+		verify(bookingRepo, times(1)).findSlotsByBookingDateBetweenAndCleanerIds(saturday.plusDays(15), saturday.plusWeeks(5), List.of(11));
+		verify(bookingOutbox, times(1)).seriesCreated(any(BookingSeries.class), eq(List.of(11)));
+		verify(seriesMaterializer, times(1)).writeOccurrences(any(BookingSeries.class), eq(dueDates), eq(saturday.plusDays(14)));
+		verify(scheduleIndex, times(1)).getDays(List.of(saturday, saturday.plusWeeks(1), saturday.plusWeeks(2),
+				saturday.plusWeeks(3), saturday.plusWeeks(4), saturday.plusWeeks(5)));
+		verify(scheduleIndex, never()).getDays(any(), any());
+		verify(scheduleIndex, never()).getDay(any());
+		verify(seriesCalendar, times(1)).invalidate();
+		verify(scheduleIndex, times(1)).evict(saturday.plusWeeks(5));
+	}
+
+	@Test
+	void testCreateSeries_dropsTheCalendarOnCommitWhileTheLocksAreHeld() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			// commits the way the real template does, still inside the locked section
+			when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+				Object result = invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+				verify(seriesCalendar, never()).invalidate();
+				TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+				verify(seriesCalendar, times(1)).invalidate();
+				return result;
+			});
+
+			bookingSeriesService.createSeries(weekly(6));
+
+			verify(seriesCalendar, times(1)).invalidate();
+			verify(availabilityCache, times(1)).evict(saturday.plusWeeks(5));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testCreateSeries_laterOccurrenceBookedConcurrentlyIsRetriedThenRejected() {
+		when(bookingRepo.findSlotsByBookingDateBetweenAndCleanerIds(any(), any(), any())).thenReturn(List.of(
+				new CleanerBookingSlot(11, 77, saturday.plusWeeks(4), LocalTime.of(11, 0), 2)));
+
+		ValidationException exception = assertThrows(ValidationException.class,
+				() -> bookingSeriesService.createSeries(weekly(6)));
+
+		assertEquals("Requested cleaners were booked concurrently, please retry", exception.getMessage());
+		verify(scheduleIndex, times(3)).evict(saturday.plusWeeks(4));
+		verify(seriesRepo, never()).save(any());
+		verify(seriesCalendar, never()).invalidate();
+	}
+
+	@Test
+	void testCreateSeries_laterOccurrenceTakenByAPendingSeriesIsRejected() {
+		// the other series was committed after planning read its days, so only the check under the locks sees it
+		doAnswer(invocation -> {
+			invocation.<Map<Integer, CleanerSchedule>>getArgument(1).put(11,
+					CleanerSchedule.ofIntervals(List.of(new BusyInterval(SeriesOccurrences.placeholderId(8), 660, 780))));
+			return null;
+		}).when(seriesCalendar).overlay(eq(saturday.plusWeeks(4)), anyMap(), any());
+
+		ValidationException exception = assertThrows(ValidationException.class,
+				() -> bookingSeriesService.createSeries(weekly(6)));
+
+		assertEquals("Requested cleaners were booked concurrently, please retry", exception.getMessage());
+		verify(seriesCalendar, times(3)).overlay(eq(saturday.plusWeeks(4)), anyMap(), eq(List.of(11)));
+		verify(seriesRepo, never()).save(any());
+		verify(bookingOutbox, never()).seriesCreated(any(), any());
+	}
+
+	@Test
+	void testCreateSeries_rejectsFridaysAndOverlongSeries() {
+		BookingSeriesDTO friday = weekly(4);
+		friday.setDayOfWeek(DayOfWeek.FRIDAY);
+		ValidationException exception = assertThrows(ValidationException.class, () -> bookingSeriesService.createSeries(friday));
+		assertEquals("No cleaners working on Friday", exception.getMessage());
+
+		BookingSeriesDTO biweekly = weekly(null);
+		biweekly.setIntervalWeeks(2);
+		biweekly.setUntilDate(saturday.plusYears(5));
+		exception = assertThrows(ValidationException.class, () -> bookingSeriesService.createSeries(biweekly));
+		assertEquals("A series may have at most 104 occurrences", exception.getMessage());
+		verify(cleanerDayGuard, never()).claim(any(), any(), anyInt(), anyInt(), any());
+	}
+
+	private BookingSeriesDTO weekly(Integer occurrences) {
+		return BookingSeriesDTO.builder()
+				.startDate(saturday)
+				.intervalWeeks(1)
+				.occurrences(occurrences)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleanerCount(1)
+				.build();
+	}
+}
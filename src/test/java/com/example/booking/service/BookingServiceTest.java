@@ -3,20 +3,39 @@ package com.example.booking.service;
 import com.example.booking.entity.Booking;
 import com.example.booking.entity.Cleaner;
 import com.example.booking.entity.Vehicle;
+import com.example.booking.exception.AllocationConflictException;
+import com.example.booking.metrics.BookingMetrics;
+import com.example.booking.model.BatchBookingResultDTO;
 import com.example.booking.model.BookingDTO;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.CleanerBookingSlot;
 import com.example.booking.model.CleanerDTO;
+import com.example.booking.model.CleanerSnapshot;
 import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,13 +46,36 @@ public class BookingServiceTest {
 	@Mock
 	private BookingRepository bookingRepo;
 	@Mock
+	private CleanerRepository cleanerRepo;
+	@Mock
 	private AvailabilityService availabilityService;
+	@Spy
+	private AllocationStrategy allocationStrategy = new SmallestVehicleStrategy();
+	@Mock
+	private ScheduleIndex scheduleIndex;
+	@Mock
+	private AvailabilityCache availabilityCache;
+	@Mock
+	private CleanerDayGuard cleanerDayGuard;
+	@Mock
+	private BookingOutbox bookingOutbox;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@Spy
+	private BookingLocks bookingLocks = new BookingLocks(16);
+	@Spy
+	private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	@Spy
+	private BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
 	@InjectMocks
 	private BookingService bookingService;
 	
 	@BeforeEach
 	void setUp() {
 		MockitoAnnotations.openMocks(this);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 	}
 	
 	@Test
@@ -44,9 +86,10 @@ public class BookingServiceTest {
 		Booking booking = createSampleBooking();
 		
 		// Mocking the service responses
-		when(availabilityService.getAvailableCleaners(any(), any(), anyInt()))
-				.thenReturn(Collections.singletonList(cleaner));
+		when(availabilityService.getAvailableTeams(any(), any(), anyInt()))
+				.thenReturn(VehicleTeams.of(Collections.singletonList(CleanerSnapshot.of(cleaner))));
 		when(bookingRepo.save(any(Booking.class))).thenReturn(booking);
+		when(cleanerRepo.getReferenceById(55)).thenReturn(cleaner);
 		CleanerDTO cleanerDTO = CleanerDTO.builder()
 				.cleanerId(cleaner.getCleanerId())
 				.cleanerName(cleaner.getCleanerName())
@@ -58,8 +101,33 @@ public class BookingServiceTest {
 		// Then
 		assertNotNull(createdBooking);
 		assertEquals(bookingDto.getBookingDate(), createdBooking.getBookingDate());
-		verify(availabilityService, times(1)).getAvailableCleaners(any(), any(), anyInt());
+		verify(availabilityService, times(1)).getAvailableTeams(any(), any(), anyInt());
 		verify(bookingRepo, times(1)).save(any(Booking.class));
+		verify(scheduleIndex, times(1)).recordBooking(booking);
+		verify(cleanerDayGuard, times(1)).claim(eq(bookingDto.getBookingDate()), eq(List.of(55)), eq(600), eq(720), isNull());
+		verify(cleanerDayGuard, times(1)).recordBookings(bookingDto.getBookingDate(), List.of(booking));
+		verify(bookingOutbox, times(1)).bookingCreated(booking);
+		verify(cleanerRepo, times(1)).getReferenceById(55);
+		verify(cleanerRepo, never()).findAllSnapshots();
+		verify(availabilityCache, times(1)).evict(bookingDto.getBookingDate());
+		assertEquals(List.of(cleaner), booking.getCleaners());
+	}
+	
+	@Test
+	void testCreateBooking_ConcurrentConflictIsRetriedThenRejected() {
+		BookingDTO bookingDto = createSampleBookingDto();
+		when(availabilityService.getAvailableTeams(any(), any(), anyInt()))
+				.thenReturn(VehicleTeams.of(Collections.singletonList(CleanerSnapshot.of(createSampleCleaner()))));
+		doThrow(new AllocationConflictException("taken"))
+				.when(cleanerDayGuard).claim(any(), any(), anyInt(), anyInt(), any());
+		
+		ValidationException exception = assertThrows(ValidationException.class,
+				() -> bookingService.createBooking(bookingDto));
+		
+		assertEquals("Requested cleaners were booked concurrently, please retry", exception.getMessage());
+		verify(availabilityService, times(3)).getAvailableTeams(any(), any(), anyInt());
+		verify(scheduleIndex, times(3)).evict(bookingDto.getBookingDate());
+		verify(bookingRepo, never()).save(any(Booking.class));
 	}
 	
 	@Test
@@ -67,27 +135,161 @@ public class BookingServiceTest {
 		// Given
 		BookingDTO bookingDto = createSampleBookingDto();
 		// Mocking no available cleaners
-		when(availabilityService.getAvailableCleaners(any(), any(), anyInt()))
-				.thenReturn(Collections.emptyList());
+		when(availabilityService.getAvailableTeams(any(), any(), anyInt()))
+				.thenReturn(VehicleTeams.EMPTY);
 		// Then
 		ValidationException exception = assertThrows(ValidationException.class,
 				() -> bookingService.createBooking(bookingDto));
 		
 		assertEquals("No cleaners available for requested time", exception.getMessage());
-		verify(availabilityService, times(1)).getAvailableCleaners(any(), any(), anyInt());
+		verify(availabilityService, times(1)).getAvailableTeams(any(), any(), anyInt());
+		assertEquals(1, meterRegistry.get("booking.allocation.failures").tag("reason", BookingMetrics.NO_CLEANERS).counter().count());
+		assertEquals(1, meterRegistry.get(BookingMetrics.CREATE).tag("outcome", "rejected").timer().count());
+	}
+	
+	@Test
+	void testGetCleanersByVehicleAndCount_picksSmallestSufficientVehicle() {
+		CleanerSnapshot vanOneFirst = createCleaner(1, 10);
+		CleanerSnapshot vanOneSecond = createCleaner(2, 10);
+		CleanerSnapshot vanOneThird = createCleaner(3, 10);
+		CleanerSnapshot vanTwoFirst = createCleaner(4, 20);
+		CleanerSnapshot vanTwoSecond = createCleaner(5, 20);
+		CleanerSnapshot loner = createCleaner(6, null);
+		
+		List<CleanerSnapshot> cleaners = List.of(vanOneFirst, vanTwoFirst, vanOneSecond, loner, vanTwoSecond, vanOneThird);
+		
+		assertEquals(List.of(vanTwoFirst, vanTwoSecond), bookingService.getCleanersByVehicleAndCount(cleaners, 2));
+		assertEquals(List.of(vanOneFirst, vanOneSecond, vanOneThird), bookingService.getCleanersByVehicleAndCount(cleaners, 3));
+		assertTrue(bookingService.getCleanersByVehicleAndCount(cleaners, 4).isEmpty());
+		assertEquals(List.of(vanTwoFirst), VehicleTeams.of(cleaners).bestFit(1));
+	}
+	
+	@Test
+	void testCreateBookings_AllocatesAgainstWorkingCopyAndReportsPerItem() {
+		BookingDTO first = createSampleBookingDto();
+		first.setBookingDate(LocalDate.of(2024, 9, 10));
+		BookingDTO second = createSampleBookingDto();
+		second.setBookingDate(LocalDate.of(2024, 9, 10));
+		BookingDTO friday = createSampleBookingDto();
+		friday.setBookingDate(LocalDate.of(2024, 9, 13));
+		Cleaner cleaner = createSampleCleaner();
+		
+		when(availabilityService.getCleaners()).thenReturn(List.of(CleanerSnapshot.of(cleaner)));
+		when(availabilityService.filterAvailableTeams(any(), any(), any(), any(), any())).thenCallRealMethod();
+		when(scheduleIndex.getDay(first.getBookingDate())).thenReturn(DaySchedule.of(first.getBookingDate(), new ArrayList<>()));
+		when(cleanerDayGuard.claim(any(), anyCollection())).thenReturn(new HashMap<>());
+		when(bookingRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+		
+		List<BatchBookingResultDTO> results = bookingService.createBookings(List.of(first, second, friday));
+		
+		assertEquals(3, results.size());
+		assertEquals(BatchBookingResultDTO.Status.CREATED, results.get(0).getStatus());
+		assertEquals(55, results.get(0).getBooking().getCleaners().get(0).getCleanerId());
+		assertEquals(BatchBookingResultDTO.Status.REJECTED, results.get(1).getStatus());
+		assertEquals("Not enough cleaners available for requested time", results.get(1).getError());
+		assertEquals(BatchBookingResultDTO.Status.REJECTED, results.get(2).getStatus());
+		assertEquals("No cleaners working on Friday", results.get(2).getError());
+		verify(bookingRepo, times(1)).saveAll(anyList());
+		verify(cleanerDayGuard, times(1)).recordBookings(eq(first.getBookingDate()), anyList());
+		verify(scheduleIndex, times(1)).getDay(first.getBookingDate());
 	}
 	
 	@Test
 	void testUpdateBooking_BookingNotFound() {
 		BookingDTO bookingDto = createSampleBookingDto();
 		// Mocking no existing booking
-		when(bookingRepo.findByBookingDateAndCleanerId(any(LocalDate.class), anyInt()))
-				.thenReturn(Collections.emptyList()); // Return an empty list for the mock
+		when(bookingRepo.findSlotsByBookingId(109)).thenReturn(Collections.emptyList());
 		ValidationException exception = assertThrows(ValidationException.class,
 				() -> bookingService.updateBooking(109, bookingDto));
 		assertEquals("No existing booking against id 109", exception.getMessage());
 	}
 	
+	@Test
+	void testUpdateBooking_KeepsFreeCleanersAndTopsUpFromTheirVehicle() {
+		BookingDTO bookingDto = createSampleBookingDto();
+		bookingDto.setBookingStartTime(LocalTime.of(14, 0));
+		LocalDate date = nextSaturday();
+		bookingDto.setBookingDate(date);
+		Booking booking = createSampleBooking();
+		booking.setBookingDate(date);
+		booking.setCleaners(List.of(Cleaner.builder().cleanerId(11).build(), Cleaner.builder().cleanerId(12).build()));
+		stubReschedule(booking, List.of(createCleaner(21, 20), createCleaner(22, 20), createCleaner(11, 10), createCleaner(12, 10), createCleaner(13, 10)));
+		// cleaner 12 is taken at the new time, everyone else is free
+		when(scheduleIndex.getDay(date)).thenReturn(DaySchedule.of(date, Map.of(12, CleanerSchedule.ofIntervals(List.of(new BusyInterval(77, 840, 960))))));
+		
+		BookingDTO updated = bookingService.updateBooking(66, bookingDto);
+		
+		assertEquals(List.of(11, 13), updated.getCleaners().stream().map(CleanerDTO::getCleanerId).toList());
+		verify(cleanerDayGuard, times(1)).claim(eq(date), eq(List.of(11, 13)), eq(840), eq(960), eq(66));
+		verify(cleanerDayGuard, times(1)).removeBooking(date, 66, List.of(11, 12));
+		verify(cleanerDayGuard, times(1)).recordBookings(date, List.of(booking));
+		verify(bookingOutbox, times(1)).bookingRescheduled(booking, date);
+		verify(bookingOutbox, times(1)).cleanersReassigned(booking, List.of(11, 12));
+		verify(scheduleIndex, times(1)).recordReschedule(date, booking);
+		verify(scheduleIndex, times(1)).getDay(date);
+	}
+	
+	@Test
+	void testUpdateBooking_ReplansAfterLosingTheClaim() {
+		BookingDTO bookingDto = createSampleBookingDto();
+		LocalDate date = nextSaturday();
+		bookingDto.setBookingDate(date);
+		Booking booking = createSampleBooking();
+		booking.setBookingDate(date);
+		booking.setCleaners(List.of(Cleaner.builder().cleanerId(11).build()));
+		stubReschedule(booking, List.of(createCleaner(11, 10)));
+		when(scheduleIndex.getDay(date)).thenReturn(DaySchedule.of(date, new ArrayList<>()));
+		doThrow(new AllocationConflictException("Cleaner 11 was booked concurrently")).doNothing()
+				.when(cleanerDayGuard).claim(any(), anyCollection(), anyInt(), anyInt(), any());
+		
+		BookingDTO updated = bookingService.updateBooking(66, bookingDto);
+		
+		assertEquals(11, updated.getCleaners().get(0).getCleanerId());
+		verify(cleanerDayGuard, times(2)).claim(eq(date), eq(List.of(11)), eq(600), eq(720), eq(66));
+		verify(scheduleIndex, times(1)).evict(date);
+		verify(bookingRepo, times(1)).save(booking);
+		verify(bookingOutbox, never()).bookingRescheduled(any(), any());
+		verify(bookingOutbox, never()).cleanersReassigned(any(), any());
+		assertEquals(1, meterRegistry.get("booking.allocation.failures").tag("reason", BookingMetrics.CONCURRENT_CONFLICT).counter().count());
+	}
+	
+	@Test
+	void testUpdateBooking_ReloadsBothDaysOfAMoveAfterLosingTheClaim() {
+		LocalDate previousDate = nextSaturday();
+		LocalDate date = previousDate.plusWeeks(1);
+		BookingDTO bookingDto = createSampleBookingDto();
+		bookingDto.setBookingDate(date);
+		Booking booking = createSampleBooking();
+		booking.setBookingDate(previousDate);
+		booking.setCleaners(List.of(Cleaner.builder().cleanerId(11).build()));
+		stubReschedule(booking, List.of(createCleaner(11, 10)));
+		when(scheduleIndex.getDay(date)).thenReturn(DaySchedule.of(date, new ArrayList<>()));
+		doThrow(new AllocationConflictException("Cleaner 11 was booked concurrently")).doNothing()
+				.when(cleanerDayGuard).claim(any(), anyCollection(), anyInt(), anyInt(), any());
+		
+		bookingService.updateBooking(66, bookingDto);
+		
+		verify(scheduleIndex, times(1)).evict(previousDate);
+		verify(scheduleIndex, times(1)).evict(date);
+	}
+	
+	private LocalDate nextSaturday() {
+		return LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+	}
+	
+	private void stubReschedule(Booking booking, List<CleanerSnapshot> roster) {
+		List<CleanerBookingSlot> currentSlots = booking.getCleaners().stream()
+				.map(cleaner -> new CleanerBookingSlot(cleaner.getCleanerId(), booking.getBookingId(), booking.getBookingDate(),
+						booking.getBookingStartTime(), booking.getBookingDuration()))
+				.toList();
+		when(bookingRepo.findSlotsByBookingId(booking.getBookingId())).thenReturn(currentSlots);
+		when(bookingRepo.findById(booking.getBookingId())).thenReturn(Optional.of(booking));
+		when(bookingRepo.save(booking)).thenReturn(booking);
+		when(cleanerRepo.getReferenceById(anyInt())).thenAnswer(invocation -> Cleaner.builder().cleanerId(invocation.getArgument(0)).build());
+		when(availabilityService.getCleaners()).thenReturn(roster);
+		when(availabilityService.filterAvailableTeams(any(), any(), any(), any(), any())).thenCallRealMethod();
+	}
+	
 	
 	private BookingDTO createSampleBookingDto() {
 		return BookingDTO.builder()
@@ -99,6 +301,10 @@ public class BookingServiceTest {
 				.build();
 	}
 	
+	private CleanerSnapshot createCleaner(int cleanerId, Integer vehicleId) {
+		return new CleanerSnapshot(cleanerId, "Cleaner " + cleanerId, vehicleId, vehicleId == null ? null : "Van " + vehicleId);
+	}
+	
 	private Cleaner createSampleCleaner() {
 		Cleaner cleaner = new Cleaner();
 		cleaner.setCleanerId(55);
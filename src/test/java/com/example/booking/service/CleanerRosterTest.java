@@ -0,0 +1,67 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.RosterChangedEvent;
+import com.example.booking.entity.Vehicle;
+import com.example.booking.model.CleanerSnapshot;
+import com.example.booking.repo.CleanerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CleanerRosterTest {
+	
+	@Mock
+	private CleanerRepository cleanerRepo;
+	private CleanerRoster cleanerRoster;
+	
+	private final CleanerSnapshot john = new CleanerSnapshot(11, "John Doe", 10, "Van 1");
+	
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		cleanerRoster = new CleanerRoster(cleanerRepo, Duration.ofMinutes(10));
+	}
+	
+	@Test
+	void testGetCleaners_loadsRosterOnceAsSnapshots() {
+		when(cleanerRepo.findAllSnapshots()).thenReturn(List.of(john));
+		
+		List<CleanerSnapshot> first = cleanerRoster.getCleaners();
+		List<CleanerSnapshot> second = cleanerRoster.getCleaners();
+		
+		assertEquals(List.of(john), first);
+		assertSame(first, second);
+		assertEquals(1, cleanerRoster.getStats().hitCount());
+		assertEquals(1, cleanerRoster.getStats().missCount());
+		verify(cleanerRepo, times(1)).findAllSnapshots();
+	}
+	
+	@Test
+	void testInvalidate_reloadsOnNextRead() {
+		when(cleanerRepo.findAllSnapshots()).thenReturn(List.of(john));
+		cleanerRoster.getCleaners();
+		
+		cleanerRoster.invalidateAfterCommit();
+		cleanerRoster.getCleaners();
+		
+		verify(cleanerRepo, times(2)).findAllSnapshots();
+	}
+	
+	@Test
+	void testOnRosterChange_reloadsOnNextRead() {
+		when(cleanerRepo.findAllSnapshots()).thenReturn(List.of(john));
+		cleanerRoster.getCleaners();
+		
+		cleanerRoster.onRosterChange(new RosterChangedEvent(new Vehicle()));
+		cleanerRoster.getCleaners();
+		
+		verify(cleanerRepo, times(2)).findAllSnapshots();
+	}
+}
@@ -0,0 +1,125 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.model.BusyInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.example.booking.service.CleanerSchedule.minuteOf;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CleanerScheduleTest {
+	
+	@Test
+	void testIsFree_onGridUsesBreakPadding() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(booking(1, LocalTime.of(10, 0), 2)));
+		
+		assertTrue(schedule.isFree(minute(8, 0), minute(9, 30), null));
+		assertFalse(schedule.isFree(minute(8, 0), minute(9, 45), null));
+		assertFalse(schedule.isFree(minute(12, 15), minute(14, 15), null));
+		assertTrue(schedule.isFree(minute(12, 30), minute(14, 30), null));
+		assertTrue(schedule.isFree(minute(11, 0), minute(13, 0), 1));
+	}
+	
+	@Test
+	void testIsFree_offGridFallsBackToIntervals() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(booking(1, LocalTime.of(10, 10), 2)));
+		
+		assertFalse(schedule.isFree(minute(12, 30), minute(14, 30), null));
+		assertTrue(schedule.isFree(minute(12, 40), minute(14, 40), null));
+		assertTrue(schedule.isFree(minute(8, 0), minute(9, 40), null));
+	}
+	
+	@Test
+	void testFreeSlots_matchGapsBetweenBookings() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(
+				booking(2, LocalTime.of(12, 0), 2),
+				booking(1, LocalTime.of(9, 0), 2)));
+		
+		List<int[]> slots = schedule.freeSlots();
+		
+		assertEquals(2, slots.size());
+		assertArrayEquals(new int[]{minute(8, 0), minute(8, 30)}, slots.get(0));
+		assertArrayEquals(new int[]{minute(14, 30), minute(22, 0)}, slots.get(1));
+	}
+	
+	@Test
+	void testIsFree_offGridSeesLongEarlierIntervalAndSkipsIgnoredBooking() {
+		// legacy rows may overlap; the long first booking still blocks the afternoon
+		CleanerSchedule schedule = CleanerSchedule.ofIntervals(List.of(
+				new BusyInterval(1, minute(9, 5), minute(15, 5)),
+				new BusyInterval(2, minute(10, 5), minute(11, 5))));
+		
+		assertFalse(schedule.isFree(minute(13, 0), minute(14, 0), null));
+		assertFalse(schedule.isFree(minute(13, 0), minute(14, 0), 2));
+		assertTrue(schedule.isFree(minute(13, 0), minute(14, 0), 1));
+		assertTrue(schedule.isFree(minute(15, 35), minute(17, 35), null));
+	}
+	
+	@Test
+	void testWith_insertsInStartOrderAndReplacesSameBooking() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(
+				booking(1, LocalTime.of(9, 0), 2),
+				booking(2, LocalTime.of(16, 0), 2)));
+		
+		CleanerSchedule updated = schedule
+				.with(new BusyInterval(3, minute(12, 0), minute(14, 0)))
+				.with(new BusyInterval(1, minute(19, 0), minute(21, 0)));
+		
+		assertEquals(List.of(3, 2, 1), updated.getBusyIntervals().stream().map(BusyInterval::getBookingId).toList());
+		assertTrue(updated.contains(3));
+		assertFalse(updated.without(3).contains(3));
+		assertEquals(2, schedule.getBusyIntervals().size());
+	}
+	
+	@Test
+	void testGapStartAndEnd_boundTheFreeGapAroundARequest() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(
+				booking(1, LocalTime.of(8, 0), 2),
+				booking(2, LocalTime.of(16, 0), 2)));
+		
+		assertEquals(minute(10, 30), schedule.gapStart(minute(12, 0)));
+		assertEquals(minute(15, 30), schedule.gapEnd(minute(14, 0)));
+		assertEquals(minute(8, 0), CleanerSchedule.EMPTY.gapStart(minute(12, 0)));
+		assertEquals(minute(22, 0), CleanerSchedule.EMPTY.gapEnd(minute(14, 0)));
+	}
+	
+	@Test
+	void testFreeSlots_emptyScheduleIsWholeShift() {
+		List<int[]> slots = CleanerSchedule.EMPTY.freeSlots();
+		
+		assertEquals(1, slots.size());
+		assertArrayEquals(new int[]{minute(8, 0), minute(22, 0)}, slots.get(0));
+	}
+	
+	@Test
+	void testEncode_roundTripsIntervalsAndBookingIds() {
+		CleanerSchedule schedule = CleanerSchedule.of(List.of(
+				booking(2, LocalTime.of(12, 0), 2),
+				booking(1, LocalTime.of(9, 10), 4)));
+		
+		String encoded = schedule.encode();
+		
+		assertEquals("1:550:790,2:720:840", encoded);
+		assertEquals(schedule.getBusyIntervals(), CleanerSchedule.decode(encoded).getBusyIntervals());
+		assertTrue(CleanerSchedule.decode(encoded.replace("1:550:790,", "")).isFree(minute(9, 0), minute(11, 0), null));
+		assertSame(CleanerSchedule.EMPTY, CleanerSchedule.decode(""));
+		assertEquals("", CleanerSchedule.EMPTY.encode());
+	}
+	
+	private int minute(int hour, int minute) {
+		return minuteOf(LocalTime.of(hour, minute));
+	}
+	
+	private Booking booking(Integer id, LocalTime startTime, int duration) {
+		return Booking.builder()
+				.bookingId(id)
+				.bookingDate(LocalDate.of(2024, 9, 5))
+				.bookingStartTime(startTime)
+				.bookingDuration(duration)
+				.build();
+	}
+}
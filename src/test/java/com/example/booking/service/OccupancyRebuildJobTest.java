@@ -0,0 +1,105 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.CleanerDayOccupancy;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OccupancyRebuildJobTest {
+
+	@Mock
+	private BookingRepository bookingRepo;
+	@Mock
+	private CleanerDayOccupancyRepository occupancyRepo;
+	@Mock
+	private ScheduleIndex scheduleIndex;
+	@Mock
+	private AvailabilityCache availabilityCache;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@InjectMocks
+	private OccupancyRebuildJob rebuildJob;
+
+	private final LocalDate date = LocalDate.now().plusDays(3);
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+	}
+
+	@Test
+	void testRebuild_correctsCreatesAndClearsRows() {
+		CleanerDayOccupancy outdated = occupancy(11, "");
+		CleanerDayOccupancy stale = occupancy(12, "9:600:720");
+		when(occupancyRepo.findAllByOccupancyDate(date)).thenReturn(List.of(outdated, stale));
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(List.of(
+				new CleanerBookingSlot(11, 33, date, LocalTime.of(10, 0), 2),
+				new CleanerBookingSlot(13, 33, date, LocalTime.of(10, 0), 2)));
+
+		assertEquals(3, rebuildJob.rebuild(date, date));
+
+		assertEquals("33:600:720", outdated.getBusyIntervals());
+		assertEquals("", stale.getBusyIntervals());
+		ArgumentCaptor<CleanerDayOccupancy> created = ArgumentCaptor.forClass(CleanerDayOccupancy.class);
+		verify(occupancyRepo, times(1)).save(created.capture());
+		assertEquals(13, created.getValue().getCleanerId());
+		assertEquals("33:600:720", created.getValue().getBusyIntervals());
+		verify(scheduleIndex, times(1)).evict(date);
+		verify(availabilityCache, times(1)).evict(date);
+	}
+
+	@Test
+	void testRebuild_retriesDateBookedConcurrently() {
+		when(occupancyRepo.findAllByOccupancyDate(date))
+				.thenThrow(new OptimisticLockingFailureException("bumped"))
+				.thenReturn(List.of(occupancy(11, "")));
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(List.of(new CleanerBookingSlot(11, 33, date, LocalTime.of(10, 0), 2)));
+
+		assertEquals(1, rebuildJob.rebuild(date, date));
+
+		verify(occupancyRepo, times(2)).findAllByOccupancyDate(date);
+		verify(scheduleIndex, times(1)).evict(date);
+	}
+
+	@Test
+	void testRebuild_failsAfterTheOtherDatesWhenRetriesAreExhausted() {
+		LocalDate nextDay = date.plusDays(1);
+		when(occupancyRepo.findAllByOccupancyDate(date)).thenThrow(new OptimisticLockingFailureException("bumped"));
+		when(occupancyRepo.findAllByOccupancyDate(nextDay)).thenReturn(List.of(occupancy(11, "")));
+		when(bookingRepo.findSlotsByBookingDate(nextDay)).thenReturn(List.of());
+
+		IllegalStateException exception = assertThrows(IllegalStateException.class, () -> rebuildJob.rebuild(date, nextDay));
+
+		assertTrue(exception.getMessage().contains(date.toString()));
+		verify(occupancyRepo, times(3)).findAllByOccupancyDate(date);
+		verify(occupancyRepo, times(1)).findAllByOccupancyDate(nextDay);
+		verify(scheduleIndex, never()).evict(any());
+	}
+
+	private CleanerDayOccupancy occupancy(int cleanerId, String busyIntervals) {
+		return CleanerDayOccupancy.builder()
+				.cleanerId(cleanerId)
+				.occupancyDate(date)
+				.busyIntervals(busyIntervals)
+				.build();
+	}
+}
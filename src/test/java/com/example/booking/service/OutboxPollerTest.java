@@ -0,0 +1,109 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.entity.OutboxEvent;
+import com.example.booking.model.BookingEventDTO;
+import com.example.booking.repo.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OutboxPollerTest {
+
+	@Mock
+	private OutboxEventRepository outboxRepo;
+	private BookingOutbox bookingOutbox;
+	private OutboxPoller outboxPoller;
+
+	private final List<BookingEventDTO> received = new ArrayList<>();
+	private final List<OutboxEvent> written = new ArrayList<>();
+	private final LocalDate date = LocalDate.now().plusDays(2);
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		bookingOutbox = new BookingOutbox(outboxRepo, new ObjectMapper().findAndRegisterModules());
+		BookingEventListener failing = event -> {
+			throw new IllegalStateException("listener down");
+		};
+		outboxPoller = new OutboxPoller(outboxRepo, bookingOutbox, List.of(failing, received::add));
+		when(outboxRepo.save(any(OutboxEvent.class))).thenAnswer(invocation -> {
+			OutboxEvent outboxEvent = invocation.getArgument(0);
+			written.add(outboxEvent);
+			return outboxEvent;
+		});
+	}
+
+	@Test
+	void testPoll_startsAtLatestThenDeliversNewEventsToEveryListener() {
+		when(outboxRepo.findLatestOutboxId()).thenReturn(4L);
+		outboxPoller.poll();
+		verify(outboxRepo, never()).findByOutboxIdGreaterThanOrderByOutboxIdAsc(any(), any());
+
+		bookingOutbox.bookingRescheduled(booking(33, List.of(11, 12)), date.minusDays(1));
+		when(outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(eq(4L), any(Limit.class))).thenReturn(List.of(stored(5L, 0)));
+		outboxPoller.poll();
+
+		assertEquals(1, received.size());
+		BookingEventDTO event = received.get(0);
+		assertEquals(5L, event.getEventId());
+		assertEquals(BookingEventDTO.Type.BOOKING_RESCHEDULED, event.getType());
+		assertEquals(date, event.getBookingDate());
+		assertEquals(date.minusDays(1), event.getPreviousBookingDate());
+		assertEquals(List.of(11, 12), event.getCleanerIds());
+		assertTrue(bookingOutbox.isLocal(event));
+	}
+
+	@Test
+	void testPoll_deliversEventsCommittedLateIntoAGap() {
+		when(outboxRepo.findLatestOutboxId()).thenReturn(0L);
+		outboxPoller.poll();
+		bookingOutbox.bookingCreated(booking(1, List.of(11)));
+		bookingOutbox.bookingCreated(booking(2, List.of(12)));
+		when(outboxRepo.findByOutboxIdGreaterThanOrderByOutboxIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(stored(2L, 1)));
+		outboxPoller.poll();
+
+		when(outboxRepo.findByOutboxIdInOrderByOutboxIdAsc(anyCollection())).thenReturn(List.of(stored(1L, 0)));
+		outboxPoller.poll();
+
+		assertEquals(List.of(2L, 1L), received.stream().map(BookingEventDTO::getEventId).toList());
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Collection<Long>> gaps = ArgumentCaptor.forClass(Collection.class);
+		verify(outboxRepo).findByOutboxIdInOrderByOutboxIdAsc(gaps.capture());
+		assertEquals(List.of(1L), List.copyOf(gaps.getValue()));
+		verify(outboxRepo).findByOutboxIdGreaterThanOrderByOutboxIdAsc(eq(2L), any(Limit.class));
+	}
+
+	private OutboxEvent stored(Long outboxId, int writtenIndex) {
+		OutboxEvent outboxEvent = written.get(writtenIndex);
+		outboxEvent.setOutboxId(outboxId);
+		return outboxEvent;
+	}
+
+	private Booking booking(Integer bookingId, List<Integer> cleanerIds) {
+		return Booking.builder()
+				.bookingId(bookingId)
+				.bookingDate(date)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.cleaners(cleanerIds.stream().map(id -> Cleaner.builder().cleanerId(id).build()).toList())
+				.build();
+	}
+}
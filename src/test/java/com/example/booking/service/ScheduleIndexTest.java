@@ -0,0 +1,174 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.CleanerBookingSlot;
+import com.example.booking.model.CleanerDayIntervals;
+import com.example.booking.model.SeriesCleanerSlot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import com.example.booking.repo.CleanerDayOccupancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ScheduleIndexTest {
+	
+	@Mock
+	private BookingRepository bookingRepo;
+	@Mock
+	private CleanerDayOccupancyRepository occupancyRepo;
+	@Mock
+	private BookingSeriesRepository seriesRepo;
+	private SeriesCalendar seriesCalendar;
+	private ScheduleIndex scheduleIndex;
+	
+	private final LocalDate date = LocalDate.now().plusDays(7);
+	private final Cleaner john = Cleaner.builder().cleanerId(11).cleanerName("John Doe").build();
+	
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		seriesCalendar = new SeriesCalendar(seriesRepo, Duration.ofMinutes(10));
+		scheduleIndex = new ScheduleIndex(bookingRepo, occupancyRepo, seriesCalendar);
+	}
+	
+	@Test
+	void testGetDay_loadsEachDateOnce() {
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(new ArrayList<>());
+		
+		scheduleIndex.getDay(date);
+		scheduleIndex.getCleanerSchedule(date, 11);
+		
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
+	@Test
+	void testRecordBooking_writesThroughToLoadedDay() {
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(new ArrayList<>());
+		scheduleIndex.getDay(date);
+		
+		scheduleIndex.recordBooking(booking(33, date, LocalTime.of(10, 0)));
+		
+		CleanerSchedule schedule = scheduleIndex.getCleanerSchedule(date, 11);
+		assertEquals(1, schedule.getBusyIntervals().size());
+		assertFalse(schedule.isFree(CleanerSchedule.minuteOf(LocalTime.of(11, 0)), CleanerSchedule.minuteOf(LocalTime.of(13, 0)), null));
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
+	@Test
+	void testRecordReschedule_movesBookingBetweenDates() {
+		LocalDate nextDay = date.plusDays(1);
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(List.of(new CleanerBookingSlot(11, 33, date, LocalTime.of(10, 0), 2)));
+		when(bookingRepo.findSlotsByBookingDate(nextDay)).thenReturn(new ArrayList<>());
+		scheduleIndex.getDay(date);
+		scheduleIndex.getDay(nextDay);
+		
+		scheduleIndex.recordReschedule(date, booking(33, nextDay, LocalTime.of(14, 0)));
+		
+		assertTrue(scheduleIndex.getCleanerSchedule(date, 11).isEmpty());
+		assertEquals(1, scheduleIndex.getCleanerSchedule(nextDay, 11).getBusyIntervals().size());
+	}
+	
+	@Test
+	void testGetDay_doesNotRetainPastDays() {
+		LocalDate pastDate = LocalDate.of(2024, 9, 5);
+		when(bookingRepo.findSlotsByBookingDate(any())).thenReturn(new ArrayList<>());
+		
+		scheduleIndex.getDay(pastDate);
+		scheduleIndex.getDay(date);
+		scheduleIndex.getDay(pastDate);
+		scheduleIndex.getDay(date);
+		
+		verify(bookingRepo, times(2)).findSlotsByBookingDate(pastDate);
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+	}
+	
+	@Test
+	void testGetDay_readsOccupancyRowsWhenEnabled() {
+		ReflectionTestUtils.setField(scheduleIndex, "occupancyReads", true);
+		String encoded = CleanerSchedule.of(List.of(booking(33, date, LocalTime.of(10, 0)))).encode();
+		when(occupancyRepo.findIntervalsByOccupancyDate(date)).thenReturn(List.of(
+				new CleanerDayIntervals(date, 11, encoded),
+				new CleanerDayIntervals(date, 12, "")));
+		
+		assertFalse(scheduleIndex.getCleanerSchedule(date, 11).isFree(600, 720, null));
+		assertTrue(scheduleIndex.getCleanerSchedule(date, 11).isFree(600, 720, 33));
+		assertTrue(scheduleIndex.getCleanerSchedule(date, 12).isEmpty());
+		verify(bookingRepo, never()).findSlotsByBookingDate(any());
+	}
+	
+	@Test
+	void testGetDay_overlaysPendingSeriesOccurrences() {
+		LocalDate nextWeek = date.plusWeeks(1);
+		when(seriesRepo.findPendingSlots()).thenReturn(List.of(
+				new SeriesCleanerSlot(5, 11, date, date.plusWeeks(4), 2, date, LocalTime.of(10, 0), 2)));
+		when(bookingRepo.findSlotsByBookingDate(any())).thenReturn(new ArrayList<>());
+		
+		// date itself is materialized and the week after is not an occurrence of a fortnightly series
+		assertTrue(scheduleIndex.getCleanerSchedule(date, 11).isEmpty());
+		assertTrue(scheduleIndex.getCleanerSchedule(nextWeek, 11).isEmpty());
+		CleanerSchedule pending = scheduleIndex.getCleanerSchedule(date.plusWeeks(2), 11);
+		assertFalse(pending.isFree(600, 720, null));
+		assertTrue(pending.contains(SeriesOccurrences.placeholderId(5)));
+		assertTrue(scheduleIndex.getCleanerSchedule(date.plusWeeks(2), 12).isEmpty());
+	}
+	
+	@Test
+	void testGetDays_queriesOnlyTheMissingDates() {
+		LocalDate twoWeeksLater = date.plusWeeks(2);
+		when(bookingRepo.findSlotsByBookingDate(date)).thenReturn(new ArrayList<>());
+		scheduleIndex.getDay(date);
+		when(bookingRepo.findSlotsByBookingDateIn(List.of(twoWeeksLater))).thenReturn(List.of(
+				new CleanerBookingSlot(11, 33, twoWeeksLater, LocalTime.of(10, 0), 2)));
+		
+		Map<LocalDate, DaySchedule> days = scheduleIndex.getDays(List.of(date, twoWeeksLater));
+		
+		assertEquals(List.of(date, twoWeeksLater), List.copyOf(days.keySet()));
+		assertTrue(days.get(date).getCleanerSchedule(11).isEmpty());
+		assertFalse(days.get(twoWeeksLater).getCleanerSchedule(11).isFree(600, 720, null));
+		verify(bookingRepo, times(1)).findSlotsByBookingDateIn(List.of(twoWeeksLater));
+		verify(bookingRepo, never()).findSlotsByBookingDateBetween(any(), any());
+	}
+	
+	@Test
+	void testEvictFrom_reloadsLaterDaysWithTheNewCalendar() {
+		LocalDate later = date.plusWeeks(1);
+		when(bookingRepo.findSlotsByBookingDate(any())).thenReturn(new ArrayList<>());
+		scheduleIndex.getDay(date);
+		scheduleIndex.getDay(later);
+		when(seriesRepo.findPendingSlots()).thenReturn(List.of(
+				new SeriesCleanerSlot(5, 11, date, later, 1, date.minusDays(1), LocalTime.of(10, 0), 2)));
+		seriesCalendar.invalidate();
+		
+		scheduleIndex.evictFrom(later);
+		
+		assertTrue(scheduleIndex.getCleanerSchedule(date, 11).isEmpty());
+		assertFalse(scheduleIndex.getCleanerSchedule(later, 11).isFree(600, 720, null));
+		verify(bookingRepo, times(1)).findSlotsByBookingDate(date);
+		verify(bookingRepo, times(2)).findSlotsByBookingDate(later);
+	}
+	
+	private Booking booking(Integer id, LocalDate bookingDate, LocalTime startTime) {
+		return Booking.builder()
+				.bookingId(id)
+				.bookingDate(bookingDate)
+				.bookingStartTime(startTime)
+				.bookingDuration(2)
+				.cleaners(List.of(john))
+				.build();
+	}
+}
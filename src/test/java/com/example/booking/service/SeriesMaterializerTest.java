@@ -0,0 +1,127 @@
+package com.example.booking.service;
+
+import com.example.booking.entity.Booking;
+import com.example.booking.entity.BookingSeries;
+import com.example.booking.entity.Cleaner;
+import com.example.booking.model.BusyInterval;
+import com.example.booking.model.SeriesCleanerSlot;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.BookingSeriesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SeriesMaterializerTest {
+
+	@Mock
+	private BookingSeriesRepository seriesRepo;
+	@Mock
+	private BookingRepository bookingRepo;
+	@Mock
+	private CleanerDayGuard cleanerDayGuard;
+	@Spy
+	private BookingLocks bookingLocks = new BookingLocks(16);
+	@Mock
+	private BookingOutbox bookingOutbox;
+	@Mock
+	private SeriesCalendar seriesCalendar;
+	@Mock
+	private ScheduleIndex scheduleIndex;
+	@Mock
+	private AvailabilityCache availabilityCache;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@InjectMocks
+	private SeriesMaterializer seriesMaterializer;
+
+	private final LocalDate saturday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(bookingRepo.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(cleanerDayGuard.claim(any(), anyCollection())).thenAnswer(invocation -> new HashMap<>());
+	}
+
+	@Test
+	void testMaterialize_writesDueOccurrencesAndSkipsOnesBookedOver() {
+		BookingSeries series = series(7);
+		stubSeries(series);
+		// a one-off booking took cleaner 11 on the second occurrence, the series' own placeholder is ignored
+		int placeholderId = SeriesOccurrences.placeholderId(7);
+		when(cleanerDayGuard.claim(eq(saturday), anyCollection())).thenReturn(new HashMap<>(Map.of(
+				11, CleanerSchedule.ofIntervals(List.of(new BusyInterval(placeholderId, 600, 720))))));
+		when(cleanerDayGuard.claim(eq(saturday.plusWeeks(2)), anyCollection())).thenReturn(new HashMap<>(Map.of(
+				11, CleanerSchedule.ofIntervals(List.of(new BusyInterval(55, 660, 780))))));
+
+		assertEquals(2, seriesMaterializer.materialize(saturday.plusWeeks(4)));
+
+		ArgumentCaptor<Booking> written = ArgumentCaptor.forClass(Booking.class);
+		verify(bookingRepo, times(2)).save(written.capture());
+		assertEquals(List.of(saturday, saturday.plusWeeks(4)), written.getAllValues().stream().map(Booking::getBookingDate).toList());
+		assertEquals(7, written.getValue().getSeriesId());
+		verify(cleanerDayGuard, times(1)).recordBookings(saturday.plusWeeks(4), List.of(written.getValue()));
+		verify(bookingOutbox, times(2)).bookingCreated(any());
+		verify(bookingOutbox, times(1)).occurrenceSkipped(series, saturday.plusWeeks(2), List.of(11));
+		assertEquals(saturday.plusWeeks(4), series.getMaterializedThrough());
+		verify(seriesCalendar, times(1)).invalidate();
+		verify(scheduleIndex, times(1)).evict(saturday.plusWeeks(2));
+		verify(availabilityCache, times(1)).evict(saturday.plusWeeks(4));
+	}
+
+	@Test
+	void testMaterialize_skipsSeriesMaterializedConcurrently() {
+		BookingSeries series = series(7);
+		stubSeries(series);
+		when(seriesRepo.findById(7)).thenThrow(new OptimisticLockingFailureException("bumped"));
+
+		assertEquals(0, seriesMaterializer.materialize(saturday.plusWeeks(4)));
+
+		verify(bookingRepo, never()).save(any());
+		verify(seriesCalendar, never()).invalidate();
+		verify(scheduleIndex, never()).evict(any());
+	}
+
+	private void stubSeries(BookingSeries series) {
+		when(seriesCalendar.getSeries()).thenReturn(SeriesOccurrences.ofSlots(List.of(new SeriesCleanerSlot(series.getSeriesId(), 11,
+				series.getFirstDate(), series.getLastDate(), series.getIntervalWeeks(), series.getMaterializedThrough(),
+				series.getBookingStartTime(), series.getBookingDuration()))));
+		when(seriesRepo.findById(series.getSeriesId())).thenReturn(Optional.of(series));
+	}
+
+	// fortnightly on Saturdays for ten weeks, 10:00 to 12:00, nothing materialized yet
+	private BookingSeries series(Integer seriesId) {
+		return BookingSeries.builder()
+				.seriesId(seriesId)
+				.firstDate(saturday)
+				.lastDate(saturday.plusWeeks(10))
+				.intervalWeeks(2)
+				.bookingStartTime(LocalTime.of(10, 0))
+				.bookingDuration(2)
+				.materializedThrough(saturday.minusDays(1))
+				.cleaners(List.of(Cleaner.builder().cleanerId(11).build()))
+				.build();
+	}
+}